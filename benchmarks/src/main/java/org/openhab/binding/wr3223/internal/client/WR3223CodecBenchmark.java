@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.client;
+
+import static org.openhab.binding.wr3223.internal.client.WR3223Frame.*;
+import static org.openhab.binding.wr3223.internal.client.WR3223RequestTemplates.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the protocol codec: encoding of the requests, parsing and checking of the answers and the checksum.
+ * The benchmarks are in the package of the codec, because the connector uses the package private codec classes for
+ * every request.
+ *
+ * @author Michael Fraefel
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WR3223CodecBenchmark {
+
+    private static final int ADDRESS = 1;
+
+    private static final WR3223Commands[] COMMANDS = { WR3223Commands.T1, WR3223Commands.T2, WR3223Commands.T3,
+            WR3223Commands.T4, WR3223Commands.RA, WR3223Commands.ST, WR3223Commands.SW, WR3223Commands.LS };
+
+    private static final String[] WRITE_VALUES = { "1", "-12", "21.5", "3", "100", "-4.5", "0", "2" };
+
+    private final byte[] writeMessage = new byte[MAX_WRITE_REQUEST_LENGTH];
+
+    /**
+     * Encoded write requests, so the checksum benchmark only measures the checksum over command, data and ETX.
+     */
+    private final byte[][] writeRequests = new byte[COMMANDS.length][];
+
+    private final byte[][] answers = new byte[COMMANDS.length][];
+
+    private final WR3223Frame frame = new WR3223Frame();
+    private final WR3223FrameParser parser = new WR3223FrameParser(frame);
+
+    /**
+     * Varies the input of the invocations.
+     */
+    private int invocation;
+
+    @Setup
+    public void setUp() {
+        for (int ii = 0; ii < COMMANDS.length; ii++) {
+            int length = setWriteRequestToMessage(writeMessage, ADDRESS, COMMANDS[ii], WRITE_VALUES[ii]);
+            writeRequests[ii] = new byte[length];
+            System.arraycopy(writeMessage, 0, writeRequests[ii], 0, length);
+            answers[ii] = createAnswer(COMMANDS[ii], WRITE_VALUES[ii]);
+        }
+    }
+
+    /**
+     * Also covers the encoding of the address and the command into the template.
+     */
+    @Benchmark
+    public byte encodeReadRequest() {
+        int index = invocation++;
+        return getReadRequest(ADDRESS + (index & 1), COMMANDS[index & 7])[5];
+    }
+
+    @Benchmark
+    public byte encodeWriteRequest() {
+        int index = invocation++ & 7;
+        int length = setWriteRequestToMessage(writeMessage, ADDRESS, COMMANDS[index], WRITE_VALUES[index]);
+        return writeMessage[length - 1];
+    }
+
+    @Benchmark
+    public int buildCheckSum() {
+        byte[] request = writeRequests[invocation++ & 7];
+        return WR3223Frame.buildCheckSum(request, 6, request.length - 2);
+    }
+
+    @Benchmark
+    public int readAnswer() throws FrameException {
+        int index = invocation++ & 7;
+        byte[] answer = answers[index];
+        int parsed = parser.parse(answer, 0, answer.length, false);
+        frame.checkAnswer(COMMANDS[index], parser.getCheckSum());
+        return parsed;
+    }
+
+    @Benchmark
+    public double readAnswerDoubleValue() throws FrameException {
+        int index = invocation++ & 7;
+        byte[] answer = answers[index];
+        parser.parse(answer, 0, answer.length, false);
+        frame.checkAnswer(COMMANDS[index], parser.getCheckSum());
+        return frame.doubleValue();
+    }
+
+    /**
+     * @return the answer of the controller to a read request: STX, command, value, ETX and checksum.
+     */
+    private static byte[] createAnswer(WR3223Commands command, String value) {
+        byte[] data = value.getBytes(StandardCharsets.US_ASCII);
+        byte[] answer = new byte[data.length + 5];
+        answer[0] = STX;
+        answer[1] = command.getFirstByte();
+        answer[2] = command.getSecondByte();
+        System.arraycopy(data, 0, answer, 3, data.length);
+        answer[answer.length - 2] = ETX;
+        answer[answer.length - 1] = (byte) WR3223Frame.buildCheckSum(answer, 1, answer.length - 2);
+        return answer;
+    }
+}
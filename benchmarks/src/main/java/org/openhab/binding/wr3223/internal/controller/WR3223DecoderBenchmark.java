@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.controller;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the decoders of the controller, which run for every read of the relais, error, status and EVU values,
+ * and of the lookup of the command type of a channel.
+ *
+ * @author Michael Fraefel
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WR3223DecoderBenchmark {
+
+    /**
+     * Typical values of the bit fields, the status and EVU values are negative.
+     */
+    private static final int[] VALUES = { 0, 1, 4, 9, 72, 130, 4097, 2623 };
+
+    private static final String[] STRING_VALUES = { "0", "1", "4.0", " 9", "72", "130", "4097", "2623.0" };
+
+    private static final int[] STATUS_VALUES = { 0, -16, -32, -48, -64, -80, -96, -112 };
+
+    private final StatusValueHolder statusHolder = new StatusValueHolder();
+
+    private String[] channelIds = new String[0];
+
+    /**
+     * Varies the input of the invocations.
+     */
+    private int invocation;
+
+    @Setup
+    public void setUp() {
+        WR3223CommandType[] types = WR3223CommandType.values();
+        channelIds = new String[types.length];
+        for (int ii = 0; ii < types.length; ii++) {
+            channelIds[ii] = types[ii].getChannelId();
+        }
+    }
+
+    @Benchmark
+    public boolean relaisValueOfInt() {
+        return RelaisValueDecoder.valueOf(VALUES[invocation++ & 7]).isBypass();
+    }
+
+    @Benchmark
+    public boolean relaisValueOfString() {
+        return RelaisValueDecoder.valueOf(STRING_VALUES[invocation++ & 7]).isBypass();
+    }
+
+    @Benchmark
+    public boolean errorValueOfInt() {
+        return ErrorValueDecoder.valueOf(VALUES[invocation++ & 7]).isError_condenser();
+    }
+
+    @Benchmark
+    public boolean statusValueOf() {
+        statusHolder.valueOf(STATUS_VALUES[invocation++ & 7]);
+        return statusHolder.isMalfunction();
+    }
+
+    @Benchmark
+    public String statusGetStatusValue() {
+        statusHolder.setVentilationLevel(invocation++ & 3);
+        return statusHolder.getStatusValue();
+    }
+
+    @Benchmark
+    public boolean evuBlockadeValueOf() {
+        return EvuBlockadeHandler.valueOf(-(invocation++ & 1)).isBlockade();
+    }
+
+    @Benchmark
+    public boolean commandTypeGetByChannelId() {
+        return WR3223CommandType.getByChannelId(channelIds[(invocation++ & 0x7fffffff) % channelIds.length])
+                .isPresent();
+    }
+}
@@ -28,6 +28,11 @@ public class WR3223BindingConstants {
 
     // List of all Thing Type UIDs
     public static final ThingTypeUID THING_TYPE_CONTROLLER = new ThingTypeUID(BINDING_ID, "controller");
+    public static final ThingTypeUID THING_TYPE_BUS = new ThingTypeUID(BINDING_ID, "bus");
+
+    // Channel configuration
+    public static final String CONFIG_POLLING_TIER = "pollingTier";
+    public static final String CONFIG_DEADBAND = "deadband";
 
     // List of all Channel ids
     public static final String CHANNEL_TEMPERATURE_EVAPORATOR = "temperatureEvaporator";
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2014,2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.wr3223.internal;
+
+/**
+ * The {@link WR3223BusConfiguration} class contains fields mapping the configuration parameters of the bus bridge.
+ * The same parameters configure the connection of a controller without bridge.
+ *
+ * @author Michael Fraefel - Initial contribution
+ */
+public class WR3223BusConfiguration {
+
+    /**
+     * the refresh interval in seconds, within every controller on the bus is polled once (optional, defaults to 15s)
+     */
+    public int refreshInterval = 15;
+
+    /**
+     * Host if connection over IP is used.
+     */
+    public String host;
+
+    /**
+     * Port if connection over IP is used.
+     */
+    public int port;
+
+    /**
+     * Serial port if connection over serial interface is used.
+     */
+    public String serialPort;
+
+    /**
+     * lower limit in milliseconds of the response timeout, which is derived from the measured round trip time
+     * (optional, defaults to 100ms)
+     */
+    public int minResponseTimeout = 100;
+
+    /**
+     * upper limit in milliseconds of the response timeout (optional, defaults to 5000ms)
+     */
+    public int maxResponseTimeout = 5000;
+
+    /**
+     * execute the polling on own threads of the binding instead of the shared thread pool of openHAB (optional,
+     * defaults to true)
+     */
+    public boolean dedicatedThreads = true;
+
+    @Override
+    public String toString() {
+        return "WR3223BusConfiguration{" + "refreshInterval=" + refreshInterval + ", host='" + host + '\''
+                + ", port=" + port + ", serialPort='" + serialPort + '\'' + ", minResponseTimeout="
+                + minResponseTimeout + ", maxResponseTimeout=" + maxResponseTimeout + ", dedicatedThreads="
+                + dedicatedThreads + '}';
+    }
+}
@@ -0,0 +1,231 @@
+/**
+ * Copyright (c) 2014,2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.wr3223.internal;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.wr3223.internal.client.AbstractWR3223Connector;
+import org.openhab.binding.wr3223.internal.client.WR3223Threads;
+import org.openhab.binding.wr3223.internal.controller.ConnectionManager;
+import org.openhab.binding.wr3223.internal.controller.ConnectionPool;
+import org.openhab.binding.wr3223.internal.controller.WR3223Connection;
+import org.openhab.binding.wr3223.internal.controller.WR3223Controller;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.ChannelUID;
+import org.openhab.core.thing.ThingStatus;
+import org.openhab.core.thing.ThingStatusDetail;
+import org.openhab.core.thing.binding.BaseBridgeHandler;
+import org.openhab.core.types.Command;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link WR3223BusHandler} owns the connection to a RS-485 bus with several WR3223 controllers. The controllers
+ * are polled one after the other, spread over the refresh interval, so the bus is never used by two cycles at the
+ * same time.
+ *
+ * @author Michael Fraefel - Initial contribution
+ */
+@NonNullByDefault
+public class WR3223BusHandler extends BaseBridgeHandler implements WR3223Connection, ConnectionManager.Listener {
+
+    /**
+     * Minimal time in milliseconds between the cycles of two controllers.
+     */
+    private static final long MIN_POLL_PERIOD = 500;
+
+    private final Logger logger = LoggerFactory.getLogger(WR3223BusHandler.class);
+
+    private final ConnectionPool connectionPool;
+
+    /**
+     * Controllers on the bus. The controllers register themselves, so they stay registered when the bus is
+     * initialized again.
+     */
+    private final List<WR3223Controller> controllers = new CopyOnWriteArrayList<>();
+
+    @Nullable
+    private volatile ConnectionPool.Lease lease;
+
+    @Nullable
+    private ScheduledFuture<?> pollingJob;
+
+    /**
+     * Executes the cycles of the controllers: an own thread of the bus or the shared scheduler.
+     */
+    private volatile ScheduledExecutorService cycleScheduler = scheduler;
+
+    /**
+     * Own thread of the bus or null if the shared scheduler is used.
+     */
+    @Nullable
+    private ScheduledExecutorService ownScheduler;
+
+    private volatile int refreshInterval = 15;
+
+    /**
+     * Index of the controller to poll next. Only used by the polling job.
+     */
+    private int nextController;
+
+    public WR3223BusHandler(Bridge bridge, ConnectionPool connectionPool) {
+        super(bridge);
+        this.connectionPool = connectionPool;
+    }
+
+    @Override
+    public void handleCommand(ChannelUID channelUID, Command command) {
+        // The bus has no channels
+    }
+
+    @Override
+    public void initialize() {
+        updateStatus(ThingStatus.UNKNOWN);
+        WR3223BusConfiguration config = getConfigAs(WR3223BusConfiguration.class);
+        logger.info(config.toString());
+        refreshInterval = config.refreshInterval;
+        if (config.dedicatedThreads) {
+            ScheduledExecutorService ownScheduler = WR3223Threads
+                    .newScheduler("OH-binding-" + getThing().getUID().getAsString());
+            this.ownScheduler = ownScheduler;
+            cycleScheduler = ownScheduler;
+        }
+        ConnectionPool.Lease lease = connectionPool.lease(config, getThing().getUID().getAsString());
+        this.lease = lease;
+        lease.start(this);
+        reschedulePolling();
+    }
+
+    @Override
+    public void dispose() {
+        synchronized (this) {
+            ScheduledFuture<?> pollingJob = this.pollingJob;
+            if (pollingJob != null) {
+                pollingJob.cancel(true);
+                this.pollingJob = null;
+            }
+        }
+        ConnectionPool.Lease lease = this.lease;
+        if (lease != null) {
+            lease.close();
+            this.lease = null;
+        }
+        ScheduledExecutorService ownScheduler = this.ownScheduler;
+        if (ownScheduler != null) {
+            ownScheduler.shutdownNow();
+            this.ownScheduler = null;
+        }
+        cycleScheduler = scheduler;
+    }
+
+    /**
+     * @return the refresh interval in seconds, within every controller is polled once.
+     */
+    public int getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    /**
+     * @return the scheduler for the cycles of the controllers on the bus. The cycles are executed one after the other.
+     */
+    public ScheduledExecutorService getCycleScheduler() {
+        return cycleScheduler;
+    }
+
+    /**
+     * Add a controller to the poll schedule. The controller is polled by the bus and not by its handler.
+     *
+     * @param controller
+     */
+    public void registerController(WR3223Controller controller) {
+        controllers.add(controller);
+        reschedulePolling();
+    }
+
+    /**
+     * Remove a controller from the poll schedule.
+     *
+     * @param controller
+     */
+    public void unregisterController(WR3223Controller controller) {
+        controllers.remove(controller);
+        reschedulePolling();
+    }
+
+    @Override
+    public @Nullable AbstractWR3223Connector getConnector() {
+        ConnectionPool.Lease lease = this.lease;
+        return lease != null ? lease.getConnector() : null;
+    }
+
+    @Override
+    public void connectionLost(AbstractWR3223Connector lost, IOException e) {
+        ConnectionPool.Lease lease = this.lease;
+        if (lease != null) {
+            lease.connectionLost(lost, e);
+        }
+    }
+
+    @Override
+    public void connected(AbstractWR3223Connector connector) {
+        for (WR3223Controller controller : controllers) {
+            controller.connected(connector);
+        }
+    }
+
+    @Override
+    public void connectionStatusChanged(ThingStatus status, ThingStatusDetail statusDetail,
+            @Nullable String description) {
+        updateStatus(status, statusDetail, description);
+    }
+
+    /**
+     * Poll one controller per period, so every controller is polled once per refresh interval.
+     */
+    private synchronized void reschedulePolling() {
+        ScheduledFuture<?> pollingJob = this.pollingJob;
+        if (pollingJob != null) {
+            pollingJob.cancel(false);
+            this.pollingJob = null;
+        }
+        int count = controllers.size();
+        if (count == 0 || lease == null) {
+            return;
+        }
+        long period = Math.max(MIN_POLL_PERIOD, refreshInterval * 1000L / count);
+        logger.debug("Poll {} controllers every {} ms one after the other.", count, period);
+        this.pollingJob = cycleScheduler.scheduleWithFixedDelay(this::pollNextController, period, period,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void pollNextController() {
+        WR3223Controller[] snapshot = controllers.toArray(new WR3223Controller[0]);
+        if (snapshot.length == 0) {
+            return;
+        }
+        nextController = (nextController + 1) % snapshot.length;
+        try {
+            snapshot[nextController].run();
+        } catch (RuntimeException e) {
+            // Keep polling the other controllers
+            logger.error("Cycle of a controller on the bus failed.", e);
+        }
+    }
+}
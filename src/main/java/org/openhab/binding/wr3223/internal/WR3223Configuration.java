@@ -25,6 +25,45 @@ public class WR3223Configuration {
      */
     public int refreshInterval = 15;
 
+    /**
+     * the interval in seconds of the keep alive message, which the WR3223 needs at least every 20 seconds (optional,
+     * defaults to 10s)
+     */
+    public int keepAliveInterval = 10;
+
+    /**
+     * the refresh interval in seconds for channels of the normal polling tier (optional, defaults to 60s)
+     */
+    public int normalRefreshInterval = 60;
+
+    /**
+     * the refresh interval in seconds for channels of the slow polling tier (optional, defaults to 600s)
+     */
+    public int slowRefreshInterval = 600;
+
+    /**
+     * interval in seconds after which unchanged values are published again (optional, defaults to 0, which only
+     * publishes changed values)
+     */
+    public int republishInterval = 0;
+
+    /**
+     * lower limit in milliseconds of the response timeout, which is derived from the measured round trip time
+     * (optional, defaults to 100ms)
+     */
+    public int minResponseTimeout = 100;
+
+    /**
+     * upper limit in milliseconds of the response timeout (optional, defaults to 5000ms)
+     */
+    public int maxResponseTimeout = 5000;
+
+    /**
+     * execute the polling on own threads of the binding instead of the shared thread pool of openHAB (optional,
+     * defaults to true)
+     */
+    public boolean dedicatedThreads = true;
+
     /**
      * Host if connection over IP is used.
      */
@@ -45,9 +84,28 @@ public class WR3223Configuration {
      */
     public int controllerAddr = 1;
 
+    /**
+     * @return the parameters of the connection, if the controller isn't connected over a bus bridge.
+     */
+    public WR3223BusConfiguration toBusConfiguration() {
+        WR3223BusConfiguration bus = new WR3223BusConfiguration();
+        bus.refreshInterval = refreshInterval;
+        bus.host = host;
+        bus.port = port;
+        bus.serialPort = serialPort;
+        bus.minResponseTimeout = minResponseTimeout;
+        bus.maxResponseTimeout = maxResponseTimeout;
+        bus.dedicatedThreads = dedicatedThreads;
+        return bus;
+    }
+
     @Override
     public String toString() {
-        return "WR3223Configuration{" + "refreshInterval=" + refreshInterval + ", host='" + host + '\'' + ", port="
-                + port + ", serialPort='" + serialPort + '\'' + ", controllerAddr=" + controllerAddr + '}';
+        return "WR3223Configuration{" + "refreshInterval=" + refreshInterval + ", keepAliveInterval="
+                + keepAliveInterval + ", normalRefreshInterval=" + normalRefreshInterval + ", slowRefreshInterval="
+                + slowRefreshInterval + ", republishInterval=" + republishInterval + ", minResponseTimeout="
+                + minResponseTimeout + ", maxResponseTimeout=" + maxResponseTimeout + ", dedicatedThreads="
+                + dedicatedThreads + ", host='" + host + '\'' + ", port=" + port + ", serialPort='" + serialPort + '\''
+                + ", controllerAddr=" + controllerAddr + '}';
     }
 }
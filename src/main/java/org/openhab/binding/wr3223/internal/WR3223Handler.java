@@ -12,24 +12,38 @@
  */
 package org.openhab.binding.wr3223.internal;
 
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+import javax.measure.Unit;
+
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.wr3223.internal.client.WR3223Threads;
+import org.openhab.binding.wr3223.internal.controller.ConnectionPool;
+import org.openhab.binding.wr3223.internal.controller.PollingTier;
+import org.openhab.binding.wr3223.internal.controller.ValueKind;
 import org.openhab.binding.wr3223.internal.controller.WR3223CommandType;
 import org.openhab.binding.wr3223.internal.controller.WR3223Controller;
-import org.openhab.core.io.transport.serial.SerialPortManager;
 import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.library.types.OnOffType;
 import org.openhab.core.library.types.OpenClosedType;
+import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.thing.Bridge;
 import org.openhab.core.thing.Channel;
 import org.openhab.core.thing.ChannelUID;
 import org.openhab.core.thing.Thing;
 import org.openhab.core.thing.ThingStatus;
 import org.openhab.core.thing.ThingStatusDetail;
+import org.openhab.core.thing.ThingStatusInfo;
 import org.openhab.core.thing.binding.BaseThingHandler;
+import org.openhab.core.thing.binding.ThingHandler;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.RefreshType;
 import org.openhab.core.types.State;
@@ -56,19 +70,57 @@ public class WR3223Handler extends BaseThingHandler implements WR3223Controller.
     @Nullable
     WR3223Controller wr3223Controller;
 
-    private final SerialPortManager serialPortManager;
+    /**
+     * Bus of the controller or null if the controller has its own connection.
+     */
+    @Nullable
+    private volatile WR3223BusHandler busHandler;
+
+    /**
+     * Executes the cycles of the controller without bus: an own thread or the shared scheduler.
+     */
+    private ScheduledExecutorService cycleScheduler = scheduler;
+
+    /**
+     * Own thread of the controller or null if the controller uses the thread of the bus or the shared scheduler.
+     */
+    @Nullable
+    private ScheduledExecutorService ownScheduler;
+
+    /**
+     * Pooled connection of the controller or null if the controller is on a bus.
+     */
+    @Nullable
+    private ConnectionPool.Lease lease;
 
-    public WR3223Handler(Thing thing, SerialPortManager serialPortManager) {
+    /**
+     * Time in milliseconds to collect refresh commands.
+     */
+    private static final long REFRESH_DELAY = 200;
+
+    private static final DecimalType ZERO = new DecimalType(0);
+    private static final DecimalType ONE = new DecimalType(1);
+
+    private final ConnectionPool connectionPool;
+
+    /**
+     * Linked channels by command. The table is replaced as a whole when the thing or a link changed.
+     */
+    private volatile Map<WR3223CommandType, ChannelDispatch> dispatchTable = new EnumMap<>(WR3223CommandType.class);
+
+    public WR3223Handler(Thing thing, ConnectionPool connectionPool) {
         super(thing);
-        this.serialPortManager = serialPortManager;
+        this.connectionPool = connectionPool;
     }
 
     @Override
     public void handleCommand(ChannelUID channelUID, Command command) {
         if (wr3223Controller != null) {
             if (command instanceof RefreshType) {
-                if (pollingJob.getDelay(TimeUnit.SECONDS) > 5) {
-                    wr3223Controller.run();
+                // Collect the refresh commands of all channels, which are sent when the thing gets online
+                if (wr3223Controller.requestRefresh(channelUID)) {
+                    getCycleScheduler().schedule(wr3223Controller::refreshRequestedChannels, REFRESH_DELAY,
+                            TimeUnit.MILLISECONDS);
                 }
             } else {
                 wr3223Controller.handleCommand(channelUID, command);
@@ -83,8 +135,96 @@ public class WR3223Handler extends BaseThingHandler implements WR3223Controller.
 
         config = getConfigAs(WR3223Configuration.class);
         logger.info(config.toString());
-        wr3223Controller = new WR3223Controller(config, serialPortManager, getThing().getUID().getAsString(), this);
-        pollingJob = scheduler.scheduleWithFixedDelay(wr3223Controller, 0L, config.refreshInterval, TimeUnit.SECONDS);
+        updateDispatchTable();
+
+        Bridge bridge = getBridge();
+        if (bridge == null) {
+            // The blocking reads don't occupy a thread of the shared pool
+            if (config.dedicatedThreads) {
+                ScheduledExecutorService ownScheduler = WR3223Threads
+                        .newScheduler("OH-binding-" + getThing().getUID().getAsString());
+                this.ownScheduler = ownScheduler;
+                cycleScheduler = ownScheduler;
+            } else {
+                cycleScheduler = scheduler;
+            }
+
+            // Things with the same endpoint share the connection and start their cycles at different times
+            ConnectionPool.Lease lease = connectionPool.lease(config.toBusConfiguration(),
+                    getThing().getUID().getAsString());
+            WR3223Controller controller = new WR3223Controller(config, this, cycleScheduler, scheduler, lease);
+            wr3223Controller = controller;
+            this.lease = lease;
+            lease.start(controller);
+            long refreshInterval = TimeUnit.SECONDS.toMillis(config.refreshInterval);
+            pollingJob = cycleScheduler.scheduleWithFixedDelay(controller, lease.getStartDelay(refreshInterval),
+                    refreshInterval, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        // The bus owns the connection and polls the controllers one after the other
+        ThingHandler bridgeHandler = bridge.getHandler();
+        if (!(bridgeHandler instanceof WR3223BusHandler)) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.BRIDGE_UNINITIALIZED, "The bus isn't initialized.");
+            return;
+        }
+        WR3223BusHandler bus = (WR3223BusHandler) bridgeHandler;
+        config.refreshInterval = bus.getRefreshInterval();
+        busHandler = bus;
+        WR3223Controller controller = new WR3223Controller(config, this, task -> getCycleScheduler().execute(task),
+                scheduler, bus);
+        wr3223Controller = controller;
+        bus.registerController(controller);
+        controller.start();
+        bridgeStatusChanged(bridge.getStatusInfo());
+    }
+
+    /**
+     * The scheduler of the bus is looked up on every use, because the bus shuts down its scheduler when it's disposed
+     * and creates a new one when it's initialized again.
+     *
+     * @return the scheduler of the cycles.
+     */
+    private ScheduledExecutorService getCycleScheduler() {
+        WR3223BusHandler bus = busHandler;
+        return bus != null ? bus.getCycleScheduler() : cycleScheduler;
+    }
+
+    /**
+     * An online bus doesn't mean, that the controller answers. The controller publishes its status after the requests.
+     */
+    @Override
+    public void bridgeStatusChanged(ThingStatusInfo bridgeStatusInfo) {
+        if (bridgeStatusInfo.getStatus() == ThingStatus.ONLINE) {
+            WR3223Controller controller = wr3223Controller;
+            if (controller != null) {
+                controller.publishAnswerStatus();
+            } else {
+                updateStatus(ThingStatus.UNKNOWN);
+            }
+        } else {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.BRIDGE_OFFLINE);
+        }
+    }
+
+    @Override
+    public void channelLinked(ChannelUID channelUID) {
+        updateDispatchTable();
+        WR3223Controller controller = wr3223Controller;
+        if (controller != null) {
+            controller.updateReadPlan();
+        }
+        super.channelLinked(channelUID);
+    }
+
+    @Override
+    public void channelUnlinked(ChannelUID channelUID) {
+        updateDispatchTable();
+        WR3223Controller controller = wr3223Controller;
+        if (controller != null) {
+            controller.updateReadPlan();
+        }
+        super.channelUnlinked(channelUID);
     }
 
     @Override
@@ -92,68 +232,64 @@ public class WR3223Handler extends BaseThingHandler implements WR3223Controller.
         if (pollingJob != null) {
             pollingJob.cancel(true);
         }
+        WR3223Controller controller = wr3223Controller;
+        if (controller != null) {
+            WR3223BusHandler bus = busHandler;
+            if (bus != null) {
+                bus.unregisterController(controller);
+            }
+            controller.close();
+        }
+        ConnectionPool.Lease lease = this.lease;
+        if (lease != null) {
+            lease.close();
+        }
+        ScheduledExecutorService ownScheduler = this.ownScheduler;
+        if (ownScheduler != null) {
+            ownScheduler.shutdownNow();
+        }
         wr3223Controller = null;
+        busHandler = null;
+        this.lease = null;
+        this.ownScheduler = null;
+        cycleScheduler = scheduler;
     }
 
     /**
-     * Publish the value to all bound items.
+     * Publish the numeric value to the bound items. The channel is taken from the dispatch table, so no lookup is
+     * needed.
      *
      * @param wr3223CommandType
      * @param value
      */
     @Override
-    public void publishValueToBoundChannel(WR3223CommandType wr3223CommandType, @Nullable Object value) {
-        if (value == null) {
-            logger.error("Can't set NULL value to channel id {}.", wr3223CommandType.getChannelId());
-            return;
-        }
-        Channel channel = getThing().getChannel(wr3223CommandType.getChannelId());
-        if (channel == null) {
-            logger.error("No channel with id {} for command {}.", wr3223CommandType.getChannelId(),
-                    wr3223CommandType.name());
-            return;
-        }
-        if (!isLinked(channel.getUID())) {
-            return;
-        }
-        String type = channel.getAcceptedItemType();
-        if (type == null) {
-            logger.error("No type for channel with id {} set.", wr3223CommandType.getChannelId());
-            return;
-        }
-        if (type.contains(":")) {
-            type = type.substring(0, type.indexOf(":"));
+    public void publishValueToBoundChannel(WR3223CommandType wr3223CommandType, double value) {
+        ChannelDispatch dispatch = dispatchTable.get(wr3223CommandType);
+        if (dispatch != null) {
+            publishState(wr3223CommandType, dispatch, dispatch.toState(value));
         }
+    }
 
-        State state = null;
-        if (type.equals("Number")) {
-            try {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("Publish command {} with number {} to channel {}", wr3223CommandType.name(),
-                            value.toString().trim(), wr3223CommandType.getChannelId());
-                }
-                state = DecimalType.valueOf(value.toString().trim());
-            } catch (NumberFormatException nfe) {
-                logger.error("Can't set value {} to channel type {} because it's not a decimal number.", value, type);
-            }
-        } else if (type.equals("Switch")) {
-            state = parseBooleanValue(value);
-            if (logger.isDebugEnabled()) {
-                logger.debug("Publish command {} with boolean {} to channel {}", wr3223CommandType.name(), state,
-                        wr3223CommandType.getChannelId());
-            }
-        } else if (type.equals("Contact")) {
-            state = parseBooleanValue(value) == OnOffType.ON ? OpenClosedType.CLOSED : OpenClosedType.OPEN;
-            if (logger.isDebugEnabled()) {
-                logger.debug("Publish command {} with boolean {} to channel {}", wr3223CommandType.name(), state);
-            }
+    /**
+     * Publish the boolean value to the bound items.
+     *
+     * @param wr3223CommandType
+     * @param value
+     */
+    @Override
+    public void publishValueToBoundChannel(WR3223CommandType wr3223CommandType, boolean value) {
+        ChannelDispatch dispatch = dispatchTable.get(wr3223CommandType);
+        if (dispatch != null) {
+            publishState(wr3223CommandType, dispatch, dispatch.toState(value));
         }
-        if (state != null) {
-            updateState(channel.getUID(), state);
-        } else {
-            logger.error("Can't set value {} of command {} to channel {}.", value, wr3223CommandType.name(),
+    }
+
+    private void publishState(WR3223CommandType wr3223CommandType, ChannelDispatch dispatch, State state) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Publish command {} with value {} to channel {}", wr3223CommandType.name(), state,
                     wr3223CommandType.getChannelId());
         }
+        updateState(dispatch.channelUID, state);
     }
 
     @Override
@@ -163,23 +299,141 @@ public class WR3223Handler extends BaseThingHandler implements WR3223Controller.
 
     @Override
     public boolean isLinked(@NonNull WR3223CommandType wr3223CommandType) {
-        return isLinked(wr3223CommandType.getChannelId());
+        return dispatchTable.containsKey(wr3223CommandType);
+    }
+
+    @Override
+    public PollingTier getPollingTier(WR3223CommandType wr3223CommandType) {
+        Channel channel = getThing().getChannel(wr3223CommandType.getChannelId());
+        if (channel != null) {
+            Object tier = channel.getConfiguration().get(WR3223BindingConstants.CONFIG_POLLING_TIER);
+            if (tier != null && !tier.toString().isEmpty()) {
+                try {
+                    return PollingTier.valueOf(tier.toString());
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Unknown polling tier {} for channel {}.", tier, wr3223CommandType.getChannelId());
+                }
+            }
+        }
+        return wr3223CommandType.getPollingTier();
+    }
+
+    @Override
+    public double getDeadband(WR3223CommandType wr3223CommandType) {
+        Channel channel = getThing().getChannel(wr3223CommandType.getChannelId());
+        if (channel != null) {
+            Object deadband = channel.getConfiguration().get(WR3223BindingConstants.CONFIG_DEADBAND);
+            if (deadband instanceof Number) {
+                return ((Number) deadband).doubleValue();
+            }
+        }
+        return 0;
     }
 
     /**
-     * Try to read the On/Off state.
-     *
-     * @param value
-     * @return state of a boolean value
+     * Build the dispatch table for the linked channels. Must be called when the thing or a link changed.
      */
-    private State parseBooleanValue(Object value) {
-        State state;
-        String valStr = value.toString().trim();
-        state = (valStr.equalsIgnoreCase("true") || valStr.equals("1") || valStr.equals("1.")) ? OnOffType.ON
-                : OnOffType.OFF;
-        if (logger.isDebugEnabled()) {
-            logger.debug("Parsed value {} to state {}", valStr, state);
+    private void updateDispatchTable() {
+        Map<WR3223CommandType, ChannelDispatch> table = new EnumMap<>(WR3223CommandType.class);
+        for (Channel channel : getThing().getChannels()) {
+            ChannelUID channelUID = channel.getUID();
+            Optional<WR3223CommandType> commandType = WR3223CommandType.getByChannelId(channelUID.getId());
+            if (!commandType.isPresent() || !isLinked(channelUID)) {
+                continue;
+            }
+            String itemType = channel.getAcceptedItemType();
+            ItemKind itemKind = ItemKind.of(itemType);
+            if (itemType == null || itemKind == null) {
+                logger.error("Item type {} of channel {} is not supported.", itemType, channelUID.getId());
+                continue;
+            }
+            ValueKind valueKind = commandType.get().getValueKind();
+            // A number item without dimension gets the value without unit
+            Unit<?> unit = itemType.indexOf(':') < 0 ? null : valueKind.getUnit();
+            table.put(commandType.get(), new ChannelDispatch(channelUID, itemKind, unit, valueKind.isDecimal()));
+        }
+        dispatchTable = table;
+    }
+
+    /**
+     * Channel of a command with the converter to the state of the item.
+     */
+    private static final class ChannelDispatch {
+
+        private final ChannelUID channelUID;
+        private final ItemKind itemKind;
+
+        /**
+         * Unit of the state or null if a {@link DecimalType} is published.
+         */
+        @Nullable
+        private final Unit<?> unit;
+
+        private final boolean decimal;
+
+        private ChannelDispatch(ChannelUID channelUID, ItemKind itemKind, @Nullable Unit<?> unit, boolean decimal) {
+            this.channelUID = channelUID;
+            this.itemKind = itemKind;
+            this.unit = unit;
+            this.decimal = decimal;
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private State toState(double value) {
+            switch (itemKind) {
+                case SWITCH:
+                    return value != 0 ? OnOffType.ON : OnOffType.OFF;
+                case CONTACT:
+                    return value != 0 ? OpenClosedType.CLOSED : OpenClosedType.OPEN;
+                default:
+                    BigDecimal number = decimal ? BigDecimal.valueOf(value) : BigDecimal.valueOf((long) value);
+                    Unit<?> unit = this.unit;
+                    return unit != null ? new QuantityType(number, unit) : new DecimalType(number);
+            }
+        }
+
+        private State toState(boolean value) {
+            switch (itemKind) {
+                case SWITCH:
+                    return value ? OnOffType.ON : OnOffType.OFF;
+                case CONTACT:
+                    return value ? OpenClosedType.CLOSED : OpenClosedType.OPEN;
+                default:
+                    return value ? ONE : ZERO;
+            }
+        }
+    }
+
+    /**
+     * Supported item types.
+     */
+    private enum ItemKind {
+        NUMBER,
+        SWITCH,
+        CONTACT;
+
+        /**
+         * Resolve the item kind of the accepted item type. The dimension of a number item is ignored.
+         *
+         * @param acceptedItemType
+         * @return the item kind or null if the type isn't supported.
+         */
+        static @Nullable ItemKind of(@Nullable String acceptedItemType) {
+            if (acceptedItemType == null) {
+                return null;
+            }
+            int separator = acceptedItemType.indexOf(':');
+            String type = separator < 0 ? acceptedItemType : acceptedItemType.substring(0, separator);
+            switch (type) {
+                case "Number":
+                    return NUMBER;
+                case "Switch":
+                    return SWITCH;
+                case "Contact":
+                    return CONTACT;
+                default:
+                    return null;
+            }
         }
-        return state;
     }
 }
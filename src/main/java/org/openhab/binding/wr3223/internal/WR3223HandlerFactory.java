@@ -12,16 +12,19 @@
  */
 package org.openhab.binding.wr3223.internal;
 
-import static org.openhab.binding.wr3223.internal.WR3223BindingConstants.THING_TYPE_CONTROLLER;
+import static org.openhab.binding.wr3223.internal.WR3223BindingConstants.*;
 
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.wr3223.internal.controller.ConnectionPool;
 import org.openhab.core.io.transport.serial.SerialPortManager;
+import org.openhab.core.thing.Bridge;
 import org.openhab.core.thing.Thing;
 import org.openhab.core.thing.ThingTypeUID;
 import org.openhab.core.thing.ThingUID;
@@ -43,21 +46,29 @@ import org.slf4j.LoggerFactory;
 @Component(configurationPid = "binding.wr3223", service = ThingHandlerFactory.class)
 public class WR3223HandlerFactory extends BaseThingHandlerFactory {
 
-    private static final Set<ThingTypeUID> SUPPORTED_THING_TYPES_UIDS = Collections.singleton(THING_TYPE_CONTROLLER);
+    private static final Set<ThingTypeUID> SUPPORTED_THING_TYPES_UIDS = new HashSet<>(
+            Arrays.asList(THING_TYPE_CONTROLLER, THING_TYPE_BUS));
 
     private final Logger logger = LoggerFactory.getLogger(WR3223HandlerFactory.class);
 
     private @NonNullByDefault({}) SerialPortManager serialPortManager;
 
+    /**
+     * Connections shared by the things with the same endpoint.
+     */
+    private @NonNullByDefault({}) ConnectionPool connectionPool;
+
     private Map<ThingUID, ThingHandler> instanceMap = new HashMap<>();
 
     @Reference
     protected void setSerialPortManager(final SerialPortManager serialPortManager) {
         this.serialPortManager = serialPortManager;
+        this.connectionPool = new ConnectionPool(serialPortManager);
     }
 
     protected void unsetSerialPortManager(final SerialPortManager serialPortManager) {
         this.serialPortManager = null;
+        this.connectionPool = null;
     }
 
     @Override
@@ -73,11 +84,15 @@ public class WR3223HandlerFactory extends BaseThingHandlerFactory {
             if (instanceMap.containsKey(uid)) {
                 return instanceMap.get(uid);
             } else {
-                ThingHandler thingHandler = new WR3223Handler(thing, serialPortManager);
+                ThingHandler thingHandler = new WR3223Handler(thing, connectionPool);
                 instanceMap.put(uid, thingHandler);
                 logger.info("New ThingHandler {} created.", uid);
                 return thingHandler;
             }
+        } else if (THING_TYPE_BUS.equals(thingTypeUID)) {
+            ThingHandler busHandler = new WR3223BusHandler((Bridge) thing, connectionPool);
+            logger.info("New bus handler {} created.", thing.getUID());
+            return busHandler;
         }
         return null;
     }
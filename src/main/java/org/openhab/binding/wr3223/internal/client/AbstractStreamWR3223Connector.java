@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base implementation for the connectors to a WR3223 on blocking streams, like a serial port. A receiver thread reads
+ * the stream and passes the data to the parser, the transactions are started by a sender thread. The reads must
+ * return after the receive timeout of the stream, so the receiver notices when the connection is closed.
+ *
+ * Both are platform threads, because the native reads and writes of a serial port would pin a virtual thread.
+ *
+ * @author Michael Fraefel
+ *
+ */
+public abstract class AbstractStreamWR3223Connector extends AbstractWR3223Connector {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractStreamWR3223Connector.class);
+
+    /**
+     * Size of the buffer for the received data. An answer has at most 12 bytes.
+     */
+    private static final int RECEIVE_BUFFER_SIZE = 64;
+
+    @Nullable
+    private InputStream inputStream;
+
+    @Nullable
+    private OutputStream outputStream;
+
+    @Nullable
+    private ExecutorService sender;
+
+    private volatile boolean closed;
+
+    /**
+     * Connect to the WR3223 and start the receiver thread.
+     *
+     * @param inputStream stream from the WR3223, which returns no data after the receive timeout
+     * @param outputStream stream to the WR3223
+     * @param initialTimeout timeout in milliseconds for the answers until the round trip time is measured.
+     */
+    protected void connect(InputStream inputStream, OutputStream outputStream, int initialTimeout) {
+        this.inputStream = inputStream;
+        this.outputStream = outputStream;
+        ExecutorService sender = Executors
+                .newSingleThreadExecutor(task -> WR3223Threads.newPlatformThread(task, "OH-binding-wr3223-sender"));
+        this.sender = sender;
+        connect(initialTimeout, sender);
+        WR3223Threads.newPlatformThread(() -> receive(inputStream), "OH-binding-wr3223-receiver").start();
+    }
+
+    @Override
+    protected void send(byte[] message, int length) throws IOException {
+        OutputStream outputStream = this.outputStream;
+        if (outputStream == null) {
+            throw new IOException("Not connected.");
+        }
+        outputStream.write(message, 0, length);
+        outputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        super.close();
+        ExecutorService sender = this.sender;
+        if (sender != null) {
+            sender.shutdown();
+        }
+        InputStream inputStream = this.inputStream;
+        if (inputStream != null) {
+            inputStream.close();
+        }
+        OutputStream outputStream = this.outputStream;
+        if (outputStream != null) {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * Read the stream until the connection is closed.
+     */
+    private void receive(InputStream inputStream) {
+        byte[] buffer = new byte[RECEIVE_BUFFER_SIZE];
+        try {
+            while (!closed) {
+                int count = inputStream.read(buffer, 0, buffer.length);
+                if (count > 0) {
+                    received(buffer, 0, count);
+                } else if (count < 0 && !closed) {
+                    failed(new IOException("End of the stream from WR3223."));
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                failed(e);
+            }
+        }
+        logger.debug("Receiver of the WR3223 connection stopped.");
+    }
+}
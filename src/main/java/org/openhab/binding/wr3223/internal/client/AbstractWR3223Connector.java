@@ -9,18 +9,31 @@
 package org.openhab.binding.wr3223.internal.client;
 
 import static java.lang.String.format;
+import static org.openhab.binding.wr3223.internal.client.WR3223Frame.*;
+import static org.openhab.binding.wr3223.internal.client.WR3223RequestTemplates.*;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Base implementation for the connector to a wr3223 device.
+ * Base implementation for the connector to a wr3223 device. The submitted transactions are executed one after the
+ * other by priority. The requests of a transaction are asynchronous: the request is sent and its future is completed
+ * by the thread which receives the answer, by the timer of the response timeout or by a broken connection. No thread
+ * waits for the answer of the WR3223.
+ *
+ * Several controllers may share the connection. The round trip time and the failed requests are tracked per controller
+ * address, so a controller which doesn't answer is only marked as silent. The connection is only considered broken
+ * when the transport fails or all controllers on the connection are silent.
  *
  * @author Michael Fraefel
  *
@@ -30,305 +43,799 @@ public abstract class AbstractWR3223Connector {
     private static final Logger logger = LoggerFactory.getLogger(AbstractWR3223Connector.class);
 
     /**
-     * Start der Nachricht
+     * Default lower limit of the response timeout in milliseconds.
+     */
+    public static final int DEFAULT_MIN_RESPONSE_TIMEOUT = 100;
+
+    /**
+     * Default upper limit of the response timeout in milliseconds.
+     */
+    public static final int DEFAULT_MAX_RESPONSE_TIMEOUT = 5000;
+
+    /**
+     * Number of attempts to get a valid answer to a request.
+     */
+    private static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * Number of failed requests in a row, after which a controller is considered silent.
+     */
+    private static final int MAX_CONSECUTIVE_FAILURES = 5;
+
+    /**
+     * Number of bytes discarded while searching the start of an answer, after which the attempt fails.
+     */
+    private static final int MAX_DISCARDED_BYTES = 64;
+
+    private static final FrameOutcome[] OUTCOMES = FrameOutcome.values();
+
+    /**
+     * Communication with the WR3223, started when the transaction is next on the bus.
+     *
+     * @param <T> result of the transaction
+     */
+    @FunctionalInterface
+    public interface Transaction<T> {
+
+        /**
+         * Start the transaction. The requests of the transaction are chained on the futures of the connector, the next
+         * request may only be sent after the previous request completed. The next transaction is started when the
+         * returned future is completed.
+         *
+         * @param connector connector to use for the requests
+         * @return the future with the result of the transaction.
+         */
+        CompletableFuture<T> execute(AbstractWR3223Connector connector);
+    }
+
+    /**
+     * Guards the request in progress, the parser and the response timeout. The lock is never held while a future is
+     * completed, because the completion sends the next request.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Frame for the answers of the WR3223. The frame is reused for every read.
+     */
+    private final WR3223Frame answer = new WR3223Frame();
+
+    /**
+     * Parser for the received data, which fills the answer frame.
+     */
+    private final WR3223FrameParser parser = new WR3223FrameParser(answer);
+
+    /**
+     * Buffer for the write requests. The buffer is reused for every write.
+     */
+    private final byte[] writeMessage = new byte[MAX_WRITE_REQUEST_LENGTH];
+
+    /**
+     * State of the controllers on the connection by address.
+     */
+    private final Map<Integer, AddressState> addresses = new HashMap<>();
+
+    /*
+     * Limits of the response timeout in milliseconds and the timeout until the round trip time of a controller is
+     * measured.
+     */
+    private int minResponseTimeout = DEFAULT_MIN_RESPONSE_TIMEOUT;
+    private int maxResponseTimeout = DEFAULT_MAX_RESPONSE_TIMEOUT;
+    private int initialResponseTimeout = DEFAULT_MAX_RESPONSE_TIMEOUT;
+
+    /**
+     * The request waiting for its answer or null.
+     */
+    @Nullable
+    private Exchange<?> exchange;
+
+    /**
+     * The failure of the transport. All following requests fail with it.
+     */
+    @Nullable
+    private IOException failure;
+
+    /**
+     * Time of the last answer of any controller as {@link System#nanoTime()}.
      */
-    private static byte STX = 0x02;
+    private volatile long lastAnswerTime;
+
     /**
-     * Ende der Nachricht
+     * Number of the outcomes of the requests, indexed by the ordinal of {@link FrameOutcome}.
      */
-    private static byte ETX = 0x03;
+    private final AtomicLongArray outcomeCounts = new AtomicLongArray(OUTCOMES.length);
+
+    @Nullable
+    private volatile WR3223BusOwner busOwner;
+
     /**
-     * Ende der Übertragung
+     * Handles the expired response timeouts, so the retries and the completions don't run on the timer thread of the
+     * JDK.
      */
-    private static byte EOT = 0x04;
+    private volatile Executor timeoutExecutor = Runnable::run;
+
     /**
-     * Anfrage / Anforderung
+     * Start the communication after the transport is connected. The expired response timeouts are handled by the
+     * executor of the transactions.
+     *
+     * @param initialTimeout timeout in milliseconds for the answers until the round trip time is measured.
+     * @param executor starts the transactions. A transport which blocks while sending needs its own thread.
      */
-    private static byte ENQ = 0x05;
+    protected void connect(int initialTimeout, Executor executor) {
+        connect(initialTimeout, executor, executor);
+    }
+
+    /**
+     * Start the communication after the transport is connected.
+     *
+     * @param initialTimeout timeout in milliseconds for the answers until the round trip time is measured.
+     * @param executor starts the transactions. A transport which blocks while sending needs its own thread.
+     * @param timeoutExecutor handles the expired response timeouts, which send the next attempt.
+     */
+    protected void connect(int initialTimeout, Executor executor, Executor timeoutExecutor) {
+        this.timeoutExecutor = timeoutExecutor;
+        lock.lock();
+        try {
+            initialResponseTimeout = initialTimeout;
+            addresses.clear();
+        } finally {
+            lock.unlock();
+        }
+        lastAnswerTime = System.nanoTime();
+        busOwner = new WR3223BusOwner(this, executor);
+    }
+
     /**
-     * Positive Rückmeldung
+     * Set the limits of the response timeout. Must be called before connecting.
+     *
+     * @param minTimeout lower limit in milliseconds
+     * @param maxTimeout upper limit in milliseconds
      */
-    private static byte ACK = 0x06;
+    public void setResponseTimeoutLimits(int minTimeout, int maxTimeout) {
+        lock.lock();
+        try {
+            minResponseTimeout = minTimeout;
+            maxResponseTimeout = maxTimeout;
+            for (AddressState state : addresses.values()) {
+                state.rtt.setLimits(minTimeout, maxTimeout);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
-     * Negative Rückmeldung
+     * The current response timeout is the time a request to the controller may take without answer.
+     *
+     * @param addr Controller address
+     * @return the response timeout in milliseconds.
      */
-    private static byte NAK = 0x15;
+    public int getResponseTimeout(int addr) {
+        lock.lock();
+        try {
+            return getAddressState(addr).rtt.getTimeout();
+        } finally {
+            lock.unlock();
+        }
+    }
 
     /**
-     * Data stream to the WR3223
+     * A controller is silent after {@link #MAX_CONSECUTIVE_FAILURES} failed requests in a row. It's asked only once
+     * per request, until it answers again.
+     *
+     * @param addr Controller address
+     * @return true if the controller didn't answer the last requests.
      */
-    private DataInputStream inputStream;
+    public boolean isSilent(int addr) {
+        lock.lock();
+        try {
+            AddressState state = addresses.get(addr);
+            return state != null && state.isSilent();
+        } finally {
+            lock.unlock();
+        }
+    }
 
     /**
-     * Data stream from the WR3223
+     * @param addr Controller address
+     * @return true if the controller answered since the connect.
      */
-    private DataOutputStream outputStream;
+    public boolean hasAnswered(int addr) {
+        lock.lock();
+        try {
+            AddressState state = addresses.get(addr);
+            return state != null && state.answered;
+        } finally {
+            lock.unlock();
+        }
+    }
 
     /**
-     * Connect to the WR3223
+     * A connection, which didn't receive an answer of any controller for a long time, is probably half open.
      *
-     * @param inputStream
-     * @param outputStream
+     * @return the time in milliseconds since the last answer of the WR3223 or since the connect.
      */
-    protected void connect(DataInputStream inputStream, DataOutputStream outputStream) {
-        this.inputStream = inputStream;
-        this.outputStream = outputStream;
+    public long getMillisSinceLastAnswer() {
+        return (System.nanoTime() - lastAnswerTime) / 1000000;
     }
 
     /**
-     * Close the connection to the WR3223
+     * Send a request to the WR3223. The method may only block until the transport took the data, the answer is passed
+     * to {@link #received(byte[], int, int)}.
+     *
+     * @param message
+     * @param length number of bytes to send
+     * @throws IOException if the connection is broken.
+     */
+    protected abstract void send(byte[] message, int length) throws IOException;
+
+    /**
+     * Close the connection to the WR3223. The queued transactions and the request in progress fail.
      *
      * @throws IOException
      */
     public void close() throws IOException {
-        if (inputStream != null) {
-            inputStream.close();
+        WR3223BusOwner busOwner = this.busOwner;
+        if (busOwner != null) {
+            busOwner.close();
         }
-        if (outputStream != null) {
-            outputStream.close();
+        failed(new IOException("Connection is closed."));
+    }
+
+    /**
+     * Queue a transaction, which is due now. Within the priority it's executed after the transactions with an earlier
+     * deadline.
+     *
+     * @param priority
+     * @param transaction
+     * @return the future with the result of the transaction.
+     */
+    public <T> CompletableFuture<T> submit(RequestPriority priority, Transaction<T> transaction) {
+        return submit(priority, System.nanoTime(), transaction);
+    }
+
+    /**
+     * Queue a transaction. Transactions with the same priority are executed earliest deadline first.
+     *
+     * @param priority
+     * @param deadline time as {@link System#nanoTime()} until the transaction should be executed
+     * @param transaction
+     * @return the future with the result of the transaction.
+     */
+    public <T> CompletableFuture<T> submit(RequestPriority priority, long deadline, Transaction<T> transaction) {
+        WR3223BusOwner busOwner = this.busOwner;
+        if (busOwner == null) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(new IOException("Not connected."));
+            return future;
         }
+        return busOwner.submit(priority, deadline, transaction);
     }
 
     /**
-     * Read data from the WR3223 controller
+     * Queue a read request.
      *
      * @param addr Controller address
      * @param command Command
-     * @return The received value.
-     * @throws IOException
+     * @param priority
+     * @return the future with the received value.
+     */
+    public CompletableFuture<String> readAsync(int addr, WR3223Commands command, RequestPriority priority) {
+        return submit(priority, connector -> connector.read(addr, command));
+    }
+
+    /**
+     * Queue a write request. The keep alive message (SW) has the highest priority, the other writes are sent before
+     * the queued reads.
+     *
+     * @param addr Controller address
+     * @param command Command
+     * @param data
+     * @return the future with true if the WR3223 acknowledged the write.
+     */
+    public CompletableFuture<Boolean> writeAsync(int addr, WR3223Commands command, String data) {
+        return submit(command == WR3223Commands.SW ? RequestPriority.KEEP_ALIVE : RequestPriority.WRITE,
+                connector -> connector.write(addr, command, data));
+    }
+
+    /**
+     * Read data from the WR3223 controller. Must be called within a transaction.
+     *
+     * @param addr Controller address
+     * @param command Command
+     * @return the future with the received value.
      */
-    public String read(int addr, WR3223Commands command) throws IOException {
-        // Remove old data from the input stream
-        if (inputStream.available() > 0) {
-            inputStream.skipBytes(inputStream.available());
+    public CompletableFuture<String> read(int addr, WR3223Commands command) {
+        return readFrame(addr, command).thenApply(WR3223Frame::getPayload);
+    }
+
+    /**
+     * Read data from the WR3223 controller without creating a string for the value. An invalid or missing answer is
+     * requested again, up to {@link #MAX_ATTEMPTS} times. Must be called within a transaction.
+     *
+     * @param addr Controller address
+     * @param command Command
+     * @return the future with the received frame. The frame is only valid until the next request of this connector,
+     *         so it must be evaluated by the functions chained to the future. The future fails with a
+     *         {@link FrameException} if no valid answer was received, but the connection is still usable, or with an
+     *         {@link IOException} if the connection is broken.
+     */
+    public CompletableFuture<WR3223Frame> readFrame(int addr, WR3223Commands command) {
+        return start(new Exchange<>(addr, command, null));
+    }
+
+    /**
+     * Write data to the WR3223 controller. Must be called within a transaction.
+     *
+     * @param addr Controller address
+     * @param command Command
+     * @param data value with 1 to 6 characters
+     * @return the future with true if the WR3223 acknowledged the write. The future fails with an
+     *         {@link IOException} if the connection is broken.
+     */
+    public CompletableFuture<Boolean> write(int addr, WR3223Commands command, String data) {
+        // Check if the provided data not longer then 6 characters.
+        if (data == null || data.length() > 6 || data.length() == 0) {
+            throw new IllegalArgumentException("Not valid data format.");
         }
+        return start(new Exchange<>(addr, command, data));
+    }
 
-        // Write read message to the controller
-        byte[] message = new byte[8];
-        message[0] = EOT;
-        setControllerAddressToMessage(message, addr, 1);
-        setCommandToMessage(message, command, 5);
-        message[7] = ENQ;
-        outputStream.write(message);
-        outputStream.flush();
-        if (logger.isDebugEnabled()) {
-            logger.debug("Write data: {}", bytesToHexString(message));
+    /**
+     * @param outcome
+     * @return the number of requests or attempts with the outcome since the connect.
+     */
+    public long getOutcomeCount(FrameOutcome outcome) {
+        return outcomeCounts.get(outcome.ordinal());
+    }
+
+    /**
+     * @return the number of all outcomes for log messages.
+     */
+    public String getOutcomeStatistics() {
+        StringBuilder statistics = new StringBuilder();
+        for (FrameOutcome outcome : OUTCOMES) {
+            if (statistics.length() > 0) {
+                statistics.append(", ");
+            }
+            statistics.append(outcome).append('=').append(outcomeCounts.get(outcome.ordinal()));
         }
+        return statistics.toString();
+    }
 
-        // Read answer from controller
-        byte[] answer = readAnswer();
-        int chkSum = inputStream.read();
-        if (logger.isDebugEnabled()) {
-            logger.debug("Read data: {} with checksum {}.", bytesToHexString(answer), Integer.toHexString(chkSum));
-        }
-
-        // Check answer
-        if (answer[0] == STX && answer[answer.length - 1] == ETX) {
-            if (chkSum == buildCheckSum(answer, 1, answer.length - 1)) {
-                if (command.name().equals(toString(answer, 1, 2))) {
-                    return toString(answer, 3, answer.length - 2);
-                } else {
-                    String error = format("Wrong command received. Expected %s but got %s.", command.name(),
-                            toString(answer, 1, 2));
-                    logger.error(error);
-                    throw new IOException(error);
-                }
+    /**
+     * Parse the data received from the WR3223. Called by the transport, e.g. by the selector thread. The request is
+     * completed by the calling thread as soon as the answer is complete.
+     *
+     * @param data
+     * @param offset
+     * @param length
+     */
+    protected final void received(byte[] data, int offset, int length) {
+        Runnable completion;
+        lock.lock();
+        try {
+            completion = parse(data, offset, length);
+        } finally {
+            lock.unlock();
+        }
+        run(completion);
+    }
+
+    /**
+     * The transport is broken. The request in progress and all following requests fail.
+     *
+     * @param e the cause
+     */
+    protected final void failed(IOException e) {
+        Runnable completion;
+        lock.lock();
+        try {
+            completion = fail(e);
+        } finally {
+            lock.unlock();
+        }
+        run(completion);
+    }
+
+    private <T> CompletableFuture<T> start(Exchange<T> exchange) {
+        Runnable completion;
+        lock.lock();
+        try {
+            checkExchange();
+            exchange.state = getAddressState(exchange.addr);
+            IOException failure = this.failure;
+            if (failure != null) {
+                completion = () -> exchange.future
+                        .completeExceptionally(new IOException(failure.getMessage(), failure));
             } else {
-                String error = format("Checksum error. Expected %s but got %s.", chkSum,
-                        buildCheckSum(answer, 1, answer.length - 1));
-                logger.error(error);
-                throw new IOException(error);
+                this.exchange = exchange;
+                completion = sendAttempt(exchange);
             }
-        } else {
-            String error = "Start/end of the controller answer is wrong.";
-            logger.error(error);
-            throw new IOException(error);
+        } finally {
+            lock.unlock();
         }
+        run(completion);
+        return exchange.future;
     }
 
-    public boolean write(int addr, WR3223Commands command, String data) throws IOException {
-        // Check if the provided data not longer then 6 characters.
-        if (data == null || data.length() > 6 || data.length() == 0) {
-            throw new IllegalArgumentException("Not valid data format.");
+    /**
+     * Only the running transaction may communicate with the WR3223, and only one request at a time.
+     */
+    private void checkExchange() {
+        WR3223BusOwner busOwner = this.busOwner;
+        if (busOwner == null || !busOwner.isBusy()) {
+            throw new IllegalStateException("The WR3223 may only be accessed within a transaction.");
         }
-
-        // Remove old data from the input stream
-        if (inputStream.available() > 0) {
-            inputStream.skipBytes(inputStream.available());
+        if (exchange != null) {
+            throw new IllegalStateException("The previous request to the WR3223 isn't completed yet.");
         }
+    }
 
-        // Write command to the controller
-        byte[] message = new byte[10 + data.length()];
-        message[0] = EOT;
-        setControllerAddressToMessage(message, addr, 1);
-        message[5] = STX;
-        setCommandToMessage(message, command, 6);
-        byte[] d = data.getBytes();
-        for (int ii = 0; ii < data.length(); ii++) {
-            message[8 + ii] = d[ii];
+    /**
+     * Send the next attempt of the request and start the timer of the response timeout. Must be called while holding
+     * the lock.
+     *
+     * @return the completion of the request, if the send failed.
+     */
+    private @Nullable Runnable sendAttempt(Exchange<?> exchange) {
+        exchange.attempt++;
+        exchange.discarded = 0;
+        parser.reset();
+        byte[] message;
+        int length;
+        String data = exchange.data;
+        if (data == null) {
+            message = getReadRequest(exchange.addr, exchange.command);
+            length = message.length;
+        } else {
+            message = writeMessage;
+            length = setWriteRequestToMessage(message, exchange.addr, exchange.command, data);
+        }
+        try {
+            send(message, length);
+        } catch (IOException e) {
+            return fail(e);
         }
-        message[message.length - 2] = ETX;
-        byte chkSum = (byte) buildCheckSum(message, 6, message.length - 2);
-        message[message.length - 1] = chkSum;
-        outputStream.write(message);
-        outputStream.flush();
         if (logger.isDebugEnabled()) {
-            logger.debug("Write data: {}", bytesToHexString(message));
+            logger.debug("Write data: {}", bytesToHexString(message, length));
         }
 
-        // Read controller answer
-        if (waitUntilDataAvailable(1, 5000l)) {
-            int answer = inputStream.readByte();
-            if (logger.isDebugEnabled()) {
-                logger.debug("Answer from WR3223 {}.", Integer.toHexString(answer));
+        // The timer isn't restarted by skipped answers of earlier requests, so an attempt never takes longer than the
+        // response timeout
+        int attempt = exchange.attempt;
+        int timeout = exchange.state.rtt.getTimeout();
+        CompletableFuture<@Nullable Void> timer = new CompletableFuture<>();
+        exchange.start = System.nanoTime();
+        exchange.timeout = timeout;
+        exchange.timer = timer;
+        timer.orTimeout(timeout, TimeUnit.MILLISECONDS).whenCompleteAsync((result, error) -> {
+            if (error != null) {
+                timedOut(exchange, attempt);
             }
-            if (answer == ACK) {
-                return true;
+        }, timeoutExecutor);
+        return null;
+    }
+
+    /**
+     * Parse the received bytes into the answer of the request in progress. Must be called while holding the lock.
+     *
+     * @return the completion of the request, if the answer is complete or the last attempt failed.
+     */
+    private @Nullable Runnable parse(byte[] data, int offset, int length) {
+        Exchange<?> exchange = this.exchange;
+        if (exchange == null) {
+            // Noise or an answer, which arrived after the response timeout
+            count(FrameOutcome.RESYNC);
+            logger.debug("Discarded {} bytes received without a request.", length);
+            return null;
+        }
+        boolean acceptReply = exchange.data != null;
+        int position = offset;
+        int end = offset + length;
+        while (position < end && this.exchange == exchange) {
+            int attempt = exchange.attempt;
+            Runnable completion = null;
+            try {
+                position += parser.parse(data, position, end - position, acceptReply);
+                int discarded = parser.takeDiscarded();
+                if (discarded > 0) {
+                    if (exchange.discarded == 0) {
+                        count(FrameOutcome.RESYNC);
+                    }
+                    exchange.discarded += discarded;
+                    logger.debug("Discarded {} bytes outside of an answer.", discarded);
+                }
+                if (acceptReply && parser.getReply() >= 0) {
+                    completion = replyReceived(exchange, parser.getReply());
+                } else if (parser.isFrameComplete()) {
+                    completion = frameReceived(exchange);
+                } else if (exchange.discarded > MAX_DISCARDED_BYTES) {
+                    parser.reset();
+                    completion = attemptFailed(exchange, new FrameException(FrameOutcome.FRAMING_ERROR,
+                            format("No start of the answer within %s bytes.", MAX_DISCARDED_BYTES)));
+                }
+            } catch (FrameException e) {
+                completion = attemptFailed(exchange, e);
+            }
+            if (completion != null || exchange.attempt != attempt) {
+                // The rest belongs to the failed attempt
+                if (position < end) {
+                    count(FrameOutcome.RESYNC);
+                    logger.debug("Discarded {} bytes received after the answer.", end - position);
+                }
+                return completion;
             }
-            logger.error("Command {} with data {} not accepted.", command.name(), data);
-        } else {
-            logger.error("Timeout. No answer for command {} with data {}.", command.name(), data);
         }
-        return false;
+        return null;
     }
 
     /**
-     * Wait until the specified timeout of data are available or the timout is reached.
+     * Check the complete answer frame. Answers to other commands are skipped. A skipped answer doesn't restart the
+     * timer of the attempt, so a stream of stale answers can't hold the request longer than the response timeout.
      *
-     * @param dataCount
-     * @param timeout
-     * @throws IOException
+     * @return the completion of the request or null if the request waits for the next answer.
      */
-    private boolean waitUntilDataAvailable(int dataCount, long timeout) throws IOException {
+    @SuppressWarnings("unchecked")
+    private @Nullable Runnable frameReceived(Exchange<?> exchange) {
+        if (exchange.data != null) {
+            count(FrameOutcome.WRONG_COMMAND);
+            logger.debug("Skipped answer {} while waiting for a reply.", answer.toHexString());
+            return null;
+        }
+        int chkSum = parser.getCheckSum();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Read data: {} with checksum {}.", answer.toHexString(), Integer.toHexString(chkSum));
+        }
         try {
-            long startTime = System.currentTimeMillis();
-            long duration = 0l;
-            Thread.sleep(100l);
-            while (inputStream.available() < dataCount && duration < timeout) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("Wait for answer from WR3223. Timeout in {}ms.", timeout - duration);
-                }
-                Thread.sleep(500l);
-                duration = (System.currentTimeMillis() - startTime);
+            answer.checkAnswer(exchange.command, chkSum);
+        } catch (FrameException e) {
+            if (e.getOutcome() != FrameOutcome.WRONG_COMMAND) {
+                return attemptFailed(exchange, e);
             }
-        } catch (InterruptedException e) {
-            logger.error("Waiting for WR3223 was interrupted.", e);
+            count(FrameOutcome.WRONG_COMMAND);
+            logger.debug("Skipped answer of an earlier request: {}", e.getMessage());
+            return null;
         }
-        return inputStream.available() >= dataCount;
+        answerReceived(exchange);
+        requestSucceeded(exchange);
+        CompletableFuture<WR3223Frame> future = (CompletableFuture<WR3223Frame>) exchange.future;
+        return () -> future.complete(answer);
     }
 
     /**
-     * Read bytes from input stream until ETX.
-     *
-     * @return The extracted answer.
-     * @throws IOException
+     * Complete the write request with the ACK/NAK of the WR3223.
      */
-    private byte[] readAnswer() throws IOException {
-        List<Byte> answerList = new ArrayList<Byte>();
-        Byte val;
-        do {
-            val = inputStream.readByte();
-            answerList.add(val);
-        } while (val != ETX);
-        return toPrimitiveArray(answerList);
+    @SuppressWarnings("unchecked")
+    private Runnable replyReceived(Exchange<?> exchange, int reply) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Answer from WR3223 {}.", Integer.toHexString(reply));
+        }
+        answerReceived(exchange);
+        requestSucceeded(exchange);
+        if (reply != ACK) {
+            logger.error("Command {} with data {} not accepted.", exchange.command.name(), exchange.data);
+        }
+        CompletableFuture<Boolean> future = (CompletableFuture<Boolean>) exchange.future;
+        return () -> future.complete(reply == ACK);
     }
 
-    private byte[] toPrimitiveArray(List<Byte> answerList) {
-        byte[] answer = new byte[answerList.size()];
-        for (int pos = 0; pos < answer.length; pos++) {
-            answer[pos] = answerList.get(pos);
+    /**
+     * Called by the timer, if the attempt wasn't answered within the response timeout.
+     */
+    private void timedOut(Exchange<?> exchange, int attempt) {
+        Runnable completion;
+        lock.lock();
+        try {
+            if (this.exchange != exchange || exchange.attempt != attempt) {
+                // Answered before the timer fired
+                return;
+            }
+            int timeout = exchange.timeout;
+            RttEstimator rtt = exchange.state.rtt;
+            rtt.onTimeout();
+            logger.debug("No answer of controller {} within {} ms (smoothed round trip time {} ms). "
+                    + "Timeout increased to {} ms.", exchange.addr, timeout, rtt.getSmoothedRtt(), rtt.getTimeout());
+            completion = attemptFailed(exchange,
+                    new FrameException(FrameOutcome.TIMEOUT, format("No answer within %s ms.", timeout)));
+        } finally {
+            lock.unlock();
         }
-        return answer;
+        run(completion);
     }
 
     /**
-     * Set the command to the message.
+     * A read is requested again, up to {@link #MAX_ATTEMPTS} times. A silent controller is asked only once, so it
+     * doesn't hold up the other controllers on the connection. A write isn't repeated, it's answered with false. Must
+     * be called while holding the lock.
      *
-     * @param message
-     * @param command
-     * @param offset
+     * @return the completion of the request or null if the request is sent again.
      */
-    private void setCommandToMessage(byte[] message, WR3223Commands command, int offset) {
-        byte[] commandByte = command.name().getBytes();
-        message[offset] = commandByte[0];
-        message[offset + 1] = commandByte[1];
+    @SuppressWarnings("unchecked")
+    private @Nullable Runnable attemptFailed(Exchange<?> exchange, FrameException e) {
+        count(e.getOutcome());
+        exchange.stopTimer();
+        if (exchange.data == null) {
+            logger.debug("Attempt {} to read {} failed: {}", exchange.attempt, exchange.command, e.getMessage());
+            if (exchange.attempt < MAX_ATTEMPTS && !exchange.state.isSilent()) {
+                return sendAttempt(exchange);
+            }
+        }
+        this.exchange = null;
+        IOException broken = requestFailed(exchange, e);
+        if (broken != null) {
+            failure = broken;
+            return () -> exchange.future.completeExceptionally(broken);
+        }
+        if (exchange.data == null) {
+            logger.warn("No valid answer from WR3223 for command {}: {}", exchange.command, e.getMessage());
+            return () -> exchange.future.completeExceptionally(e);
+        }
+        logger.warn("No valid answer from WR3223 for command {} with data {}: {}", exchange.command, exchange.data,
+                e.getMessage());
+        CompletableFuture<Boolean> future = (CompletableFuture<Boolean>) exchange.future;
+        return () -> future.complete(false);
     }
 
     /**
-     * Set the controller address to the message.
+     * Fail the request in progress and all following requests. Must be called while holding the lock.
      *
-     * @param message
-     * @param addr
-     * @param offset
+     * @return the completion of the request in progress or null.
      */
-    private void setControllerAddressToMessage(byte[] message, int addr, int offset) {
-        if (addr > 99) {
-            throw new IllegalArgumentException("The address must be between 1 and 99.");
+    private @Nullable Runnable fail(IOException e) {
+        if (failure == null) {
+            failure = e;
         }
-        String addrStr = String.valueOf(addr);
-        if (addrStr.length() == 1) {
-            addrStr = "0" + addrStr;
+        Exchange<?> exchange = this.exchange;
+        if (exchange == null) {
+            return null;
         }
-        byte[] addrByte = addrStr.getBytes();
-        message[offset] = addrByte[0];
-        message[offset + 1] = addrByte[0];
-        message[offset + 2] = addrByte[1];
-        message[offset + 3] = addrByte[1];
+        this.exchange = null;
+        exchange.stopTimer();
+        return () -> exchange.future.completeExceptionally(e);
+    }
+
+    private void count(FrameOutcome outcome) {
+        outcomeCounts.incrementAndGet(outcome.ordinal());
+    }
+
+    private void requestSucceeded(Exchange<?> exchange) {
+        count(exchange.attempt == 1 ? FrameOutcome.OK : FrameOutcome.RETRIED);
+        AddressState state = exchange.state;
+        if (state.isSilent()) {
+            logger.info("Controller {} answers again.", exchange.addr);
+        }
+        state.consecutiveFailures = 0;
+        state.answered = true;
     }
 
     /**
-     * Answer to string
+     * Count the failed request. Too many failed requests in a row mean, that the controller is silent. The connection
+     * is considered broken, when all controllers on it are silent.
      *
-     * @param answer as bytes
-     * @param start
-     * @param end
-     * @return the answer as string value.
+     * @param failure the failure of the last attempt
+     * @return the exception if the connection is considered broken or null.
      */
-    private String toString(byte[] answer, int start, int end) {
-        String data = "";
-        for (int ii = start; ii <= end; ii++) {
-            char ch = (char) answer[ii];
-            data = data + ch;
+    private @Nullable IOException requestFailed(Exchange<?> exchange, FrameException failure) {
+        count(FrameOutcome.FAILED);
+        AddressState state = exchange.state;
+        if (++state.consecutiveFailures != MAX_CONSECUTIVE_FAILURES) {
+            return null;
         }
-        return data;
+        for (AddressState other : addresses.values()) {
+            if (!other.isSilent()) {
+                logger.warn("Controller {} didn't answer {} requests in a row. Statistics: {}", exchange.addr,
+                        state.consecutiveFailures, getOutcomeStatistics());
+                return null;
+            }
+        }
+        return new IOException(format("%s requests to WR3223 failed in a row. Statistics: %s",
+                state.consecutiveFailures, getOutcomeStatistics()), failure);
+    }
+
+    private void answerReceived(Exchange<?> exchange) {
+        exchange.stopTimer();
+        this.exchange = null;
+        long now = System.nanoTime();
+        lastAnswerTime = now;
+        exchange.state.rtt.addSample((now - exchange.start) / 1000000.0);
     }
 
     /**
-     * Build the checksum.
+     * Must be called while holding the lock.
      *
-     * @param answer
-     * @param start
-     * @param end
-     * @return checksum of the answer byte array.
+     * @return the state of the controller, which is created with the first request.
      */
-    private int buildCheckSum(byte[] answer, int start, int end) {
-        int chkSum = answer[start];
-        for (int i = start + 1; i <= end; i++) {
-            chkSum = chkSum ^ answer[i];
+    private AddressState getAddressState(int addr) {
+        AddressState state = addresses.get(addr);
+        if (state == null) {
+            state = new AddressState(new RttEstimator(minResponseTimeout, maxResponseTimeout));
+            state.rtt.reset(initialResponseTimeout);
+            addresses.put(addr, state);
+        }
+        return state;
+    }
+
+    private static void run(@Nullable Runnable completion) {
+        if (completion != null) {
+            completion.run();
         }
-        return chkSum;
     }
 
     /**
-     * Convert the bytes to a hex string for debug messages.
+     * Round trip time and failures of one controller. Guarded by the lock of the connector.
+     */
+    private static final class AddressState {
+
+        private final RttEstimator rtt;
+
+        /**
+         * Failed requests since the last valid answer.
+         */
+        private int consecutiveFailures;
+
+        /**
+         * True if the controller answered since the connect.
+         */
+        private boolean answered;
+
+        private AddressState(RttEstimator rtt) {
+            this.rtt = rtt;
+        }
+
+        private boolean isSilent() {
+            return consecutiveFailures >= MAX_CONSECUTIVE_FAILURES;
+        }
+    }
+
+    /**
+     * A request and its answer.
      *
-     * @param data
-     * @return
-     */
-    private String bytesToHexString(byte[] data) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("[");
-        for (int ii = 0; ii < data.length; ii++) {
-            String asHex = Integer.toHexString(data[ii]);
-            if (asHex.length() == 1) {
-                sb.append("0");
-            }
-            sb.append(asHex);
-            if (ii + 1 < data.length) {
-                sb.append(" ");
+     * @param <T> WR3223Frame for a read, Boolean for a write
+     */
+    private static final class Exchange<T> {
+
+        private final int addr;
+        private final WR3223Commands command;
+
+        /**
+         * Data of a write request or null for a read request.
+         */
+        @Nullable
+        private final String data;
+
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        /*
+         * State of the current attempt, guarded by the lock of the connector.
+         */
+        private int attempt;
+        private long start;
+        private int timeout;
+        private int discarded;
+
+        @Nullable
+        private CompletableFuture<@Nullable Void> timer;
+
+        /**
+         * State of the addressed controller, set when the request is started.
+         */
+        private AddressState state;
+
+        private Exchange(int addr, WR3223Commands command, @Nullable String data) {
+            this.addr = addr;
+            this.command = command;
+            this.data = data;
+        }
+
+        /**
+         * Cancel the timer of the response timeout.
+         */
+        private void stopTimer() {
+            CompletableFuture<@Nullable Void> timer = this.timer;
+            if (timer != null) {
+                this.timer = null;
+                timer.complete(null);
             }
         }
-        sb.append("]");
-        return sb.toString();
     }
 }
@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.client;
+
+import java.io.IOException;
+
+/**
+ * A single answer of the WR3223 was invalid or missing. The connection is still usable, only the value of the
+ * request is lost.
+ *
+ * @author Michael Fraefel
+ *
+ */
+public class FrameException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final FrameOutcome outcome;
+
+    public FrameException(FrameOutcome outcome, String message) {
+        super(message);
+        this.outcome = outcome;
+    }
+
+    public FrameException(FrameOutcome outcome, String message, Throwable cause) {
+        super(message, cause);
+        this.outcome = outcome;
+    }
+
+    /**
+     * @return the reason of the failure.
+     */
+    public FrameOutcome getOutcome() {
+        return outcome;
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.client;
+
+/**
+ * Outcome of a request to the WR3223. The connector counts the outcomes of its requests.
+ *
+ * @author Michael Fraefel
+ *
+ */
+public enum FrameOutcome {
+
+    /** Valid answer at the first attempt. */
+    OK,
+
+    /** Valid answer after one or more attempts failed. */
+    RETRIED,
+
+    /** Attempt failed, because no answer was received within the timeout. */
+    TIMEOUT,
+
+    /** Attempt failed, because the checksum of the answer was wrong. */
+    CHECKSUM_ERROR,
+
+    /** Attempt failed, because the answer echoed another command. */
+    WRONG_COMMAND,
+
+    /** Attempt failed, because the answer had no valid start or end. */
+    FRAMING_ERROR,
+
+    /** Bytes before the start of an answer were discarded. */
+    RESYNC,
+
+    /** All attempts of a request failed. */
+    FAILED
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.client;
+
+/**
+ * Priority of a request to the WR3223. Requests with a higher priority are sent first, requests with the same priority
+ * in the order they were submitted.
+ *
+ * @author Michael Fraefel
+ *
+ */
+public enum RequestPriority {
+
+    /** Keep alive message (SW), which must be sent within 20 seconds. */
+    KEEP_ALIVE,
+
+    /** Writes of values changed by the user. */
+    WRITE,
+
+    /** Reads of the status, relais and errors. */
+    ALARM_READ,
+
+    /** Reads of the measured values. */
+    SENSOR_READ,
+
+    /** Reads of the parameters, which only change by the user. */
+    PARAMETER_READ
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.client;
+
+/**
+ * Estimates the response timeout of a connection from the measured round trip times. The timeout is calculated like
+ * the retransmission timeout of TCP (RFC 6298): smoothed round trip time plus four times its variation, limited by a
+ * minimum and maximum. After a timeout the timeout is doubled until the next answer is measured.
+ *
+ * @author Michael Fraefel
+ *
+ */
+final class RttEstimator {
+
+    private static final double ALPHA = 0.125;
+    private static final double BETA = 0.25;
+    private static final int K = 4;
+
+    private int minTimeout;
+    private int maxTimeout;
+
+    /**
+     * Smoothed round trip time in milliseconds, negative until the first answer is measured.
+     */
+    private double srtt = -1;
+
+    /**
+     * Variation of the round trip time in milliseconds.
+     */
+    private double rttvar;
+
+    private int timeout;
+
+    /**
+     * @param minTimeout in milliseconds
+     * @param maxTimeout in milliseconds
+     */
+    RttEstimator(int minTimeout, int maxTimeout) {
+        setLimits(minTimeout, maxTimeout);
+        timeout = maxTimeout;
+    }
+
+    /**
+     * Set the limits of the timeout.
+     *
+     * @param minTimeout in milliseconds
+     * @param maxTimeout in milliseconds
+     */
+    void setLimits(int minTimeout, int maxTimeout) {
+        this.minTimeout = Math.max(1, minTimeout);
+        this.maxTimeout = Math.max(this.minTimeout, maxTimeout);
+        timeout = limit(timeout);
+    }
+
+    /**
+     * Start again with the initial timeout, which is used until the first answer is measured.
+     *
+     * @param initialTimeout in milliseconds
+     */
+    void reset(int initialTimeout) {
+        srtt = -1;
+        rttvar = 0;
+        timeout = limit(initialTimeout);
+    }
+
+    /**
+     * Add the measured round trip time of an answer.
+     *
+     * @param rtt in milliseconds
+     */
+    void addSample(double rtt) {
+        if (srtt < 0) {
+            srtt = rtt;
+            rttvar = rtt / 2;
+        } else {
+            rttvar = (1 - BETA) * rttvar + BETA * Math.abs(srtt - rtt);
+            srtt = (1 - ALPHA) * srtt + ALPHA * rtt;
+        }
+        timeout = limit((int) Math.ceil(srtt + K * rttvar));
+    }
+
+    /**
+     * An answer wasn't received within the timeout.
+     */
+    void onTimeout() {
+        timeout = limit((int) Math.min(Integer.MAX_VALUE, timeout * 2L));
+    }
+
+    /**
+     * @return the timeout for the next answer in milliseconds.
+     */
+    int getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @return the smoothed round trip time in milliseconds or a negative value if no answer was measured yet.
+     */
+    double getSmoothedRtt() {
+        return srtt;
+    }
+
+    private int limit(int value) {
+        return Math.min(maxTimeout, Math.max(minTimeout, value));
+    }
+}
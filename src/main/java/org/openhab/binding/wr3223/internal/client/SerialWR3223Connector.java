@@ -8,8 +8,6 @@
  */
 package org.openhab.binding.wr3223.internal.client;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 
 import org.eclipse.jdt.annotation.NonNull;
@@ -24,15 +22,26 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Connector implementation for a serial port connection to WR3223.
+ * Connector implementation for a serial port connection to WR3223. The serial port is read with a receive timeout, so
+ * the receiver thread notices when the connection is closed.
  *
  * @author Michael Fraefel
  *
  */
-public class SerialWR3223Connector extends AbstractWR3223Connector {
+public class SerialWR3223Connector extends AbstractStreamWR3223Connector {
 
     private static final Logger logger = LoggerFactory.getLogger(SerialWR3223Connector.class);
 
+    /**
+     * Timeout for the answer of a read request in milliseconds, until the round trip time is measured.
+     */
+    private static final int INITIAL_RESPONSE_TIMEOUT = 2000;
+
+    /**
+     * Timeout of the reads from the serial port in milliseconds.
+     */
+    private static final int RECEIVE_TIMEOUT = 500;
+
     private SerialPort serialPort;
     private SerialPortIdentifier portId;
 
@@ -61,15 +70,15 @@ public class SerialWR3223Connector extends AbstractWR3223Connector {
                         "Serial port doesn't support the configuration 7 data bit, 1 stop bit and parity even.");
 
             }
+
             try {
-                serialPort.enableReceiveTimeout(2000);
-            } catch (UnsupportedCommOperationException ex) {
-                logger.warn("Error by adding receive timeout.", ex);
+                serialPort.enableReceiveTimeout(RECEIVE_TIMEOUT);
+            } catch (UnsupportedCommOperationException e) {
+                logger.warn("Error by adding receive timeout.", e);
+                return new ConnectResult(ThingStatus.OFFLINE, ThingStatusDetail.OFFLINE.COMMUNICATION_ERROR,
+                        "Serial port doesn't support a receive timeout.");
             }
-
-            DataInputStream inputStream = new DataInputStream(serialPort.getInputStream());
-            DataOutputStream outputStream = new DataOutputStream(serialPort.getOutputStream());
-            connect(inputStream, outputStream);
+            connect(serialPort.getInputStream(), serialPort.getOutputStream(), INITIAL_RESPONSE_TIMEOUT);
             return new ConnectResult(ThingStatus.ONLINE);
 
         } catch (final IOException ex) {
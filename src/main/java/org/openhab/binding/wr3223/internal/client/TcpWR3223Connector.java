@@ -8,24 +8,88 @@
  */
 package org.openhab.binding.wr3223.internal.client;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.net.Socket;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.thing.ThingStatus;
 import org.openhab.core.thing.ThingStatusDetail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Connector implementation for a TCP connection to WR3223.
+ * Connector implementation for a TCP connection to WR3223. The connection uses a non blocking socket channel. The
+ * received data is parsed by the selector thread shared by all connections, which also completes the requests. A
+ * request which doesn't fit into the socket buffer is sent by the selector thread, when the channel gets writable
+ * again. No thread waits for the WR3223.
  *
  * @author Michael Fraefel
  *
  */
-public class TcpWR3223Connector extends AbstractWR3223Connector {
+public class TcpWR3223Connector extends AbstractWR3223Connector implements WR3223SocketSelector.SelectionHandler {
 
-    private Socket socket;
+    private static final Logger logger = LoggerFactory.getLogger(TcpWR3223Connector.class);
+
+    /**
+     * Timeout for the answer of a read request in milliseconds, until the round trip time is measured.
+     */
+    private static final int RECEIVE_TIMEOUT = 5000;
+
+    /**
+     * Timeout to establish the connection in milliseconds.
+     */
+    private static final int CONNECT_TIMEOUT = 5000;
+
+    private static final int BUFFER_SIZE = 256;
+
+    /**
+     * Handles the expired response timeouts of all TCP connections. The transactions are started by the submitting
+     * thread, but a retry after a timeout must not run on the timer thread of the JDK.
+     */
+    private static final Executor TIMEOUT_EXECUTOR = WR3223Threads.newCachedExecutor("OH-binding-wr3223-timeout");
+
+    /**
+     * Data received by the selector thread. The channel reads into the direct buffer without an intermediate copy of
+     * the JDK, the parser gets a copy in the receive array. Only used by the selector thread.
+     */
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    private final byte[] receiveArray = new byte[BUFFER_SIZE];
+
+    /**
+     * Data which wasn't sent yet. The buffer is in write mode and guarded by the send lock.
+     */
+    private final ByteBuffer sendBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    private final ReentrantLock sendLock = new ReentrantLock();
+
+    /**
+     * Completed by the selector thread, when the connection is established.
+     */
+    private final CompletableFuture<@Nullable Void> connected = new CompletableFuture<>();
+
+    @Nullable
+    private volatile WR3223SocketSelector selector;
+
+    @Nullable
+    private volatile SocketChannel channel;
+
+    @Nullable
+    private volatile SelectionKey key;
 
     /**
      * Connect to WR3223 over IP
@@ -35,20 +99,164 @@ public class TcpWR3223Connector extends AbstractWR3223Connector {
      */
     public @NonNull ConnectResult connect(String host, int port) {
         try {
-            socket = new Socket(host, port);
-            socket.setSoTimeout(5000);
-            connect(new DataInputStream(socket.getInputStream()), new DataOutputStream(socket.getOutputStream()));
+            WR3223SocketSelector selector = WR3223SocketSelector.acquire();
+            this.selector = selector;
+            SocketChannel channel = SocketChannel.open();
+            this.channel = channel;
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            // Detect a half open connection also while the binding doesn't send
+            channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+            boolean established = channel.connect(new InetSocketAddress(host, port));
+            if (established) {
+                connected.complete(null);
+            }
+            key = selector.register(channel, established ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT, this);
+            awaitConnection();
+            // The sends never block, so the transactions are started by the submitting thread
+            connect(RECEIVE_TIMEOUT, Runnable::run, TIMEOUT_EXECUTOR);
         } catch (IOException e) {
+            logger.debug("Couldn't connect to {}:{}.", host, port, e);
+            closeChannel();
             return new ConnectResult(ThingStatus.OFFLINE, ThingStatusDetail.OFFLINE.COMMUNICATION_ERROR, "I/O error!");
         }
         return new ConnectResult(ThingStatus.ONLINE);
     }
 
+    /**
+     * Send as much as the channel takes. The rest is sent by the selector thread.
+     */
+    @Override
+    protected void send(byte[] message, int length) throws IOException {
+        sendLock.lock();
+        try {
+            if (sendBuffer.remaining() < length) {
+                throw new IOException("The WR3223 doesn't take the sent data.");
+            }
+            sendBuffer.put(message, 0, length);
+            flush();
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
     @Override
     public void close() throws IOException {
         super.close();
-        if (socket != null && socket.isConnected()) {
-            socket.close();
+        closeChannel();
+    }
+
+    /**
+     * Called by the selector thread. The received data is parsed right away, so the selector thread completes the
+     * request.
+     */
+    @Override
+    public void selected(SelectionKey key) {
+        try {
+            if (key.isConnectable()) {
+                ((SocketChannel) key.channel()).finishConnect();
+                key.interestOps(SelectionKey.OP_READ);
+                connected.complete(null);
+            }
+            if (key.isReadable()) {
+                int count;
+                while ((count = ((SocketChannel) key.channel()).read(receiveBuffer)) > 0) {
+                    receiveBuffer.flip();
+                    receiveBuffer.get(receiveArray, 0, count);
+                    receiveBuffer.clear();
+                    received(receiveArray, 0, count);
+                }
+                if (count < 0) {
+                    key.interestOps(0);
+                    // Not an EOFException, which is a timeout for the serial connection
+                    failed(new IOException("Connection closed by the other side."));
+                    return;
+                }
+            }
+            if (key.isValid() && key.isWritable()) {
+                sendLock.lock();
+                try {
+                    flush();
+                } finally {
+                    sendLock.unlock();
+                }
+            }
+        } catch (CancelledKeyException e) {
+            logger.debug("Channel is already closed.");
+            connectionFailed(new IOException("Connection is closed.", e));
+        } catch (IOException e) {
+            key.cancel();
+            connectionFailed(e);
+        }
+    }
+
+    @Override
+    public void selectionFailed(RuntimeException e) {
+        connectionFailed(new IOException("Couldn't handle the data of the connection.", e));
+    }
+
+    private void connectionFailed(IOException e) {
+        connected.completeExceptionally(e);
+        failed(e);
+    }
+
+    /**
+     * Write the send buffer to the channel. The selector thread is notified to send the rest, when the channel gets
+     * writable again. Must be called while holding the send lock.
+     *
+     * @throws IOException
+     */
+    private void flush() throws IOException {
+        SocketChannel channel = this.channel;
+        WR3223SocketSelector selector = this.selector;
+        SelectionKey key = this.key;
+        if (channel == null || selector == null || key == null) {
+            throw new IOException("Connection is closed.");
+        }
+        sendBuffer.flip();
+        try {
+            channel.write(sendBuffer);
+        } finally {
+            sendBuffer.compact();
+        }
+        int ops = sendBuffer.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        selector.setInterestOps(key, ops);
+    }
+
+    private void awaitConnection() throws IOException {
+        try {
+            connected.get(CONNECT_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new SocketTimeoutException("Timeout by connecting.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Connecting to WR3223 was interrupted.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw new IOException(cause != null ? cause.getMessage() : "Couldn't connect.", cause);
+        }
+    }
+
+    private void closeChannel() {
+        connected.completeExceptionally(new IOException("Connection is closed."));
+        SelectionKey key = this.key;
+        if (key != null) {
+            key.cancel();
+            this.key = null;
+        }
+        SocketChannel channel = this.channel;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Couldn't close channel.", e);
+            }
+            this.channel = null;
+        }
+        WR3223SocketSelector selector = this.selector;
+        if (selector != null) {
+            WR3223SocketSelector.release(selector);
+            this.selector = null;
         }
     }
 }
@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.client;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openhab.binding.wr3223.internal.client.AbstractWR3223Connector.Transaction;
+
+/**
+ * Owner of the bus of a connection to the WR3223. The transactions are queued by priority and executed one after the
+ * other, so the frames of two requests can never interleave. Transactions with the same priority are executed
+ * earliest deadline first, so the controllers sharing a connection are served fairly: a controller whose cycle is due
+ * soon isn't stuck behind the reads of a controller with a later deadline.
+ *
+ * The bus owner has no thread. The next transaction is started by the thread which completed the previous one, or by
+ * the submitting thread if the bus is idle.
+ *
+ * @author Michael Fraefel
+ *
+ */
+final class WR3223BusOwner {
+
+    private static final Comparator<Request<?>> ORDER = Comparator.<Request<?>, RequestPriority> comparing(
+            request -> request.priority).thenComparing((a, b) -> Long.signum(a.deadline - b.deadline))
+            .thenComparingLong(request -> request.sequence);
+
+    private final AbstractWR3223Connector connector;
+
+    /**
+     * Starts the transactions.
+     */
+    private final Executor executor;
+
+    private final PriorityBlockingQueue<Request<?>> queue = new PriorityBlockingQueue<>(16, ORDER);
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * True while a transaction runs.
+     */
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    /**
+     * Number of dispatch calls, which weren't handled yet. Only the first caller dispatches, the other callers only
+     * increment the counter, so a transaction which completes right away doesn't start the next one recursively.
+     */
+    private final AtomicInteger dispatchRequests = new AtomicInteger();
+
+    private volatile boolean closed;
+
+    /**
+     * @param connector
+     * @param executor starts the transactions
+     */
+    WR3223BusOwner(AbstractWR3223Connector connector, Executor executor) {
+        this.connector = connector;
+        this.executor = executor;
+    }
+
+    /**
+     * Queue the transaction.
+     *
+     * @param priority
+     * @param deadline time as {@link System#nanoTime()} until the transaction should be executed
+     * @param transaction
+     * @return the future with the result of the transaction.
+     */
+    <T> CompletableFuture<T> submit(RequestPriority priority, long deadline, Transaction<T> transaction) {
+        Request<T> request = new Request<>(priority, deadline, sequence.getAndIncrement(), transaction);
+        queue.add(request);
+        if (closed) {
+            failQueuedRequests();
+        } else {
+            dispatch();
+        }
+        return request.future;
+    }
+
+    /**
+     * @return true while a transaction runs.
+     */
+    boolean isBusy() {
+        return busy.get();
+    }
+
+    /**
+     * Stop executing transactions. The queued transactions fail.
+     */
+    void close() {
+        closed = true;
+        failQueuedRequests();
+    }
+
+    /**
+     * Start the next transaction, if no transaction runs.
+     */
+    private void dispatch() {
+        if (dispatchRequests.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            if (!closed && busy.compareAndSet(false, true)) {
+                Request<?> request = queue.poll();
+                if (request == null) {
+                    busy.set(false);
+                } else {
+                    try {
+                        executor.execute(() -> request.execute(connector, this::finished));
+                    } catch (RejectedExecutionException e) {
+                        busy.set(false);
+                        request.future.completeExceptionally(new IOException("Connection is closed.", e));
+                    }
+                }
+            }
+        } while (dispatchRequests.decrementAndGet() != 0);
+    }
+
+    private void finished() {
+        busy.set(false);
+        dispatch();
+    }
+
+    private void failQueuedRequests() {
+        Request<?> request;
+        while ((request = queue.poll()) != null) {
+            request.future.completeExceptionally(new IOException("Connection is closed."));
+        }
+    }
+
+    private static final class Request<T> {
+
+        private final RequestPriority priority;
+        private final long deadline;
+        private final long sequence;
+        private final Transaction<T> transaction;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private Request(RequestPriority priority, long deadline, long sequence, Transaction<T> transaction) {
+            this.priority = priority;
+            this.deadline = deadline;
+            this.sequence = sequence;
+            this.transaction = transaction;
+        }
+
+        /**
+         * Start the transaction. The next transaction is started before the result is passed on, so the bus isn't
+         * idle while the caller handles the result.
+         *
+         * @param finished called when the transaction is done
+         */
+        private void execute(AbstractWR3223Connector connector, Runnable finished) {
+            if (future.isDone()) {
+                // Cancelled by the cycle
+                finished.run();
+                return;
+            }
+            CompletableFuture<T> result;
+            try {
+                result = transaction.execute(connector);
+            } catch (RuntimeException e) {
+                result = new CompletableFuture<>();
+                result.completeExceptionally(e);
+            }
+            result.whenComplete((value, error) -> {
+                finished.run();
+                if (error != null) {
+                    future.completeExceptionally(unwrap(error));
+                } else {
+                    future.complete(value);
+                }
+            });
+        }
+
+        private static Throwable unwrap(Throwable error) {
+            Throwable cause = error.getCause();
+            return error instanceof CompletionException && cause != null ? cause : error;
+        }
+    }
+}
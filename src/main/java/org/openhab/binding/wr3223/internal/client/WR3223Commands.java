@@ -208,6 +208,22 @@ public enum WR3223Commands {
     Tf,
 
     /** Status auslesen */
-    Ta
-
+    Ta;
+
+    private final byte firstByte = (byte) name().charAt(0);
+    private final byte secondByte = (byte) name().charAt(1);
+
+    /**
+     * @return first character of the command as byte, like it is sent to the controller.
+     */
+    byte getFirstByte() {
+        return firstByte;
+    }
+
+    /**
+     * @return second character of the command as byte, like it is sent to the controller.
+     */
+    byte getSecondByte() {
+        return secondByte;
+    }
 }
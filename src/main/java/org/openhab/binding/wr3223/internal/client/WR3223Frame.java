@@ -0,0 +1,288 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.client;
+
+import static java.lang.String.format;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reusable buffer for one answer frame of the WR3223. The answer is decoded directly in the buffer, so reading a value
+ * doesn't allocate any objects. The frame is reused by the next read of the connector.
+ *
+ * @author Michael Fraefel
+ *
+ */
+public final class WR3223Frame {
+
+    /**
+     * Start der Nachricht
+     */
+    static final byte STX = 0x02;
+    /**
+     * Ende der Nachricht
+     */
+    static final byte ETX = 0x03;
+    /**
+     * Ende der Übertragung
+     */
+    static final byte EOT = 0x04;
+    /**
+     * Anfrage / Anforderung
+     */
+    static final byte ENQ = 0x05;
+    /**
+     * Positive Rückmeldung
+     */
+    static final byte ACK = 0x06;
+    /**
+     * Negative Rückmeldung
+     */
+    static final byte NAK = 0x15;
+
+    /**
+     * The longest answer is STX, command (2), value (max. 6 characters with sign and decimal point) and ETX. The buffer
+     * has some reserve for unknown answers.
+     */
+    private static final int MAX_FRAME_LENGTH = 32;
+
+    private final byte[] buffer = new byte[MAX_FRAME_LENGTH];
+
+    private int length;
+
+    /**
+     * Clear the frame for the next answer.
+     */
+    void clear() {
+        length = 0;
+    }
+
+    /**
+     * @return the number of bytes in the frame.
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Append a received byte to the frame.
+     *
+     * @param value
+     * @throws FrameException if the answer is longer than a valid frame.
+     */
+    void append(byte value) throws FrameException {
+        if (length == MAX_FRAME_LENGTH) {
+            throw new FrameException(FrameOutcome.FRAMING_ERROR,
+                    format("Answer of the controller is longer than %s bytes.", MAX_FRAME_LENGTH));
+        }
+        buffer[length++] = value;
+    }
+
+    /**
+     * Check start, end, checksum and the command echo of the received answer.
+     *
+     * @param command the expected command
+     * @param chkSum the received checksum
+     * @throws FrameException if the answer is not valid.
+     */
+    void checkAnswer(WR3223Commands command, int chkSum) throws FrameException {
+        if (length < 4 || buffer[0] != STX || buffer[length - 1] != ETX) {
+            throw new FrameException(FrameOutcome.FRAMING_ERROR, "Start/end of the controller answer is wrong.");
+        }
+        int expectedChkSum = buildCheckSum(buffer, 1, length - 1);
+        if (chkSum != expectedChkSum) {
+            throw new FrameException(FrameOutcome.CHECKSUM_ERROR,
+                    format("Checksum error. Expected %s but got %s.", expectedChkSum, chkSum));
+        }
+        if (buffer[1] != command.getFirstByte() || buffer[2] != command.getSecondByte()) {
+            throw new FrameException(FrameOutcome.WRONG_COMMAND, format(
+                    "Wrong command received. Expected %s but got %s%s.", command.name(), (char) buffer[1],
+                    (char) buffer[2]));
+        }
+    }
+
+    /**
+     * @return true if the controller doesn't support the command. The controller answers with "???" in this case.
+     */
+    public boolean isUnsupported() {
+        int end = getPayloadEnd();
+        for (int ii = getPayloadStart(); ii + 2 < end; ii++) {
+            if (buffer[ii] == '?' && buffer[ii + 1] == '?' && buffer[ii + 2] == '?') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parse the integer part of the value. Decimal places are cut off.
+     *
+     * @return the value as integer.
+     * @throws NumberFormatException if the value is not a number.
+     */
+    public int intValue() {
+        int pos = skipSpaces(getPayloadStart());
+        int end = getPayloadEnd();
+        boolean negative = false;
+        if (pos < end && (buffer[pos] == '-' || buffer[pos] == '+')) {
+            negative = buffer[pos] == '-';
+            pos++;
+        }
+        int value = 0;
+        int digits = 0;
+        while (pos < end && isDigit(buffer[pos])) {
+            value = value * 10 + (buffer[pos++] - '0');
+            digits++;
+        }
+        if (digits == 0 || !isEndOfNumber(pos, end, true)) {
+            throw new NumberFormatException(format("Value %s is not a number.", getPayload()));
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parse the value as decimal number.
+     *
+     * @return the value as double.
+     * @throws NumberFormatException if the value is not a number.
+     */
+    public double doubleValue() {
+        int pos = skipSpaces(getPayloadStart());
+        int end = getPayloadEnd();
+        boolean negative = false;
+        if (pos < end && (buffer[pos] == '-' || buffer[pos] == '+')) {
+            negative = buffer[pos] == '-';
+            pos++;
+        }
+        long value = 0;
+        long divisor = 1;
+        int digits = 0;
+        boolean decimalPoint = false;
+        while (pos < end) {
+            byte ch = buffer[pos];
+            if (isDigit(ch)) {
+                value = value * 10 + (ch - '0');
+                if (decimalPoint) {
+                    divisor *= 10;
+                }
+                digits++;
+            } else if (ch == '.' && !decimalPoint) {
+                decimalPoint = true;
+            } else {
+                break;
+            }
+            pos++;
+        }
+        if (digits == 0 || !isEndOfNumber(pos, end, false)) {
+            throw new NumberFormatException(format("Value %s is not a number.", getPayload()));
+        }
+        double result = (double) value / divisor;
+        return negative ? -result : result;
+    }
+
+    /**
+     * @return the value as string. This creates a new string for every call.
+     */
+    public String getPayload() {
+        return new String(buffer, getPayloadStart(), getPayloadEnd() - getPayloadStart(), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Convert the bytes of the frame to a hex string for debug messages.
+     *
+     * @return
+     */
+    public String toHexString() {
+        return bytesToHexString(buffer, length);
+    }
+
+    @Override
+    public String toString() {
+        return getPayload();
+    }
+
+    /**
+     * Build the checksum.
+     *
+     * @param data
+     * @param start
+     * @param end
+     * @return checksum of the byte array.
+     */
+    static int buildCheckSum(byte[] data, int start, int end) {
+        int chkSum = data[start];
+        for (int i = start + 1; i <= end; i++) {
+            chkSum = chkSum ^ data[i];
+        }
+        return chkSum;
+    }
+
+    /**
+     * Convert the bytes to a hex string for debug messages.
+     *
+     * @param data
+     * @param length
+     * @return
+     */
+    static String bytesToHexString(byte[] data, int length) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (int ii = 0; ii < length; ii++) {
+            String asHex = Integer.toHexString(data[ii]);
+            if (asHex.length() == 1) {
+                sb.append("0");
+            }
+            sb.append(asHex);
+            if (ii + 1 < length) {
+                sb.append(" ");
+            }
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * The value starts after STX and the command.
+     */
+    private int getPayloadStart() {
+        return Math.min(3, length);
+    }
+
+    /**
+     * The value ends before ETX (exclusive end).
+     */
+    private int getPayloadEnd() {
+        return Math.max(getPayloadStart(), length - 1);
+    }
+
+    private int skipSpaces(int pos) {
+        int end = getPayloadEnd();
+        while (pos < end && buffer[pos] == ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Only spaces may follow a number. If decimals are cut off, also a decimal point with digits may follow.
+     */
+    private boolean isEndOfNumber(int pos, int end, boolean ignoreDecimals) {
+        if (ignoreDecimals && pos < end && buffer[pos] == '.') {
+            pos++;
+            while (pos < end && isDigit(buffer[pos])) {
+                pos++;
+            }
+        }
+        return skipSpaces(pos) == end;
+    }
+
+    private static boolean isDigit(byte ch) {
+        return ch >= '0' && ch <= '9';
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.client;
+
+import static org.openhab.binding.wr3223.internal.client.WR3223Frame.*;
+
+/**
+ * Incremental parser for the data received from the WR3223. The parser is fed with the bytes of bulk reads and keeps
+ * its state between the reads, so an answer may be split over several reads:
+ *
+ * <pre>
+ * IDLE --STX--> PAYLOAD --ETX--> CHECKSUM --any byte--> IDLE (answer complete)
+ * </pre>
+ *
+ * Bytes outside of an answer are discarded. A STX within an answer starts a new answer, so noise and partial answers
+ * don't break the synchronization. In idle state the parser also accepts the ACK/NAK reply of a write request.
+ *
+ * @author Michael Fraefel
+ *
+ */
+final class WR3223FrameParser {
+
+    private enum State {
+        IDLE,
+        PAYLOAD,
+        CHECKSUM
+    }
+
+    private final WR3223Frame frame;
+
+    private State state = State.IDLE;
+
+    private boolean frameComplete;
+
+    private int checkSum;
+
+    private int reply;
+
+    private int discarded;
+
+    /**
+     * @param frame the frame to fill with the received answers
+     */
+    WR3223FrameParser(WR3223Frame frame) {
+        this.frame = frame;
+        reset();
+    }
+
+    /**
+     * Discard a partial answer and start again in idle state.
+     */
+    void reset() {
+        state = State.IDLE;
+        frameComplete = false;
+        reply = -1;
+        discarded = 0;
+        frame.clear();
+    }
+
+    /**
+     * Parse the received bytes until an answer or a reply is complete.
+     *
+     * @param data received bytes
+     * @param offset of the first byte to parse
+     * @param length number of bytes to parse
+     * @param acceptReply true if an ACK/NAK is expected
+     * @return the number of parsed bytes. The remaining bytes belong to the next answer.
+     * @throws FrameException if the answer is longer than a valid frame. The parser is in idle state afterwards.
+     */
+    int parse(byte[] data, int offset, int length, boolean acceptReply) throws FrameException {
+        frameComplete = false;
+        reply = -1;
+        for (int ii = 0; ii < length; ii++) {
+            byte value = data[offset + ii];
+            switch (state) {
+                case IDLE:
+                    if (value == STX) {
+                        frame.clear();
+                        frame.append(value);
+                        state = State.PAYLOAD;
+                    } else if (acceptReply && (value == ACK || value == NAK)) {
+                        reply = value;
+                        return ii + 1;
+                    } else {
+                        discarded++;
+                    }
+                    break;
+                case PAYLOAD:
+                    if (value == STX) {
+                        // Start of a new answer, the partial answer is discarded
+                        discarded += frame.length();
+                        frame.clear();
+                        frame.append(value);
+                    } else {
+                        try {
+                            frame.append(value);
+                        } catch (FrameException e) {
+                            state = State.IDLE;
+                            throw e;
+                        }
+                        if (value == ETX) {
+                            state = State.CHECKSUM;
+                        }
+                    }
+                    break;
+                case CHECKSUM:
+                    checkSum = value & 0xff;
+                    frameComplete = true;
+                    state = State.IDLE;
+                    return ii + 1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * @return true if the last parse completed an answer.
+     */
+    boolean isFrameComplete() {
+        return frameComplete;
+    }
+
+    /**
+     * @return the checksum of the completed answer.
+     */
+    int getCheckSum() {
+        return checkSum;
+    }
+
+    /**
+     * @return the ACK/NAK received by the last parse or -1.
+     */
+    int getReply() {
+        return reply;
+    }
+
+    /**
+     * @return the number of discarded bytes since the last call.
+     */
+    int takeDiscarded() {
+        int result = discarded;
+        discarded = 0;
+        return result;
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.client;
+
+import static org.openhab.binding.wr3223.internal.client.WR3223Frame.*;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Precomputed request frames for every controller address and command. The templates are built once per address and
+ * never modified, so a read request can be sent without any encoding work.
+ *
+ * @author Michael Fraefel
+ *
+ */
+final class WR3223RequestTemplates {
+
+    private static final int MAX_ADDRESS = 99;
+
+    /**
+     * Length of a read request: EOT, address (4), command (2) and ENQ.
+     */
+    static final int READ_REQUEST_LENGTH = 8;
+
+    /**
+     * Offset of the data in a write request: EOT, address (4), STX and command (2).
+     */
+    static final int WRITE_DATA_OFFSET = 8;
+
+    /**
+     * Max. length of a write request: header, data (max. 6 characters), ETX and checksum.
+     */
+    static final int MAX_WRITE_REQUEST_LENGTH = WRITE_DATA_OFFSET + 6 + 2;
+
+    private static final WR3223Commands[] COMMANDS = WR3223Commands.values();
+
+    /**
+     * Read requests per address, indexed by the ordinal of the command.
+     */
+    private static final AtomicReferenceArray<byte[][]> READ_REQUESTS = new AtomicReferenceArray<>(MAX_ADDRESS + 1);
+
+    private WR3223RequestTemplates() {
+    }
+
+    /**
+     * Get the read request for the command. The returned array must not be modified.
+     *
+     * @param addr Controller address
+     * @param command Command
+     * @return the complete read request.
+     */
+    static byte[] getReadRequest(int addr, WR3223Commands command) {
+        checkAddress(addr);
+        byte[][] requests = READ_REQUESTS.get(addr);
+        if (requests == null) {
+            requests = new byte[COMMANDS.length][];
+            for (WR3223Commands cmd : COMMANDS) {
+                byte[] message = new byte[READ_REQUEST_LENGTH];
+                message[0] = EOT;
+                setControllerAddressToMessage(message, addr, 1);
+                setCommandToMessage(message, cmd, 5);
+                message[7] = ENQ;
+                requests[cmd.ordinal()] = message;
+            }
+            READ_REQUESTS.compareAndSet(addr, null, requests);
+        }
+        return requests[command.ordinal()];
+    }
+
+    /**
+     * Copy the header of a write request into the message. Only the data, ETX and the checksum must be added after
+     * {@link #WRITE_DATA_OFFSET}.
+     *
+     * @param message
+     * @param addr Controller address
+     * @param command Command
+     */
+    static void setWriteHeaderToMessage(byte[] message, int addr, WR3223Commands command) {
+        // The address part is the same as in the read request
+        System.arraycopy(getReadRequest(addr, command), 0, message, 0, 5);
+        message[5] = STX;
+        message[6] = command.getFirstByte();
+        message[7] = command.getSecondByte();
+    }
+
+    /**
+     * Encode a complete write request into the message.
+     *
+     * @param message buffer with at least {@link #MAX_WRITE_REQUEST_LENGTH} bytes
+     * @param addr Controller address
+     * @param command Command
+     * @param data value to write, max. 6 characters
+     * @return the length of the request.
+     */
+    static int setWriteRequestToMessage(byte[] message, int addr, WR3223Commands command, String data) {
+        int length = WRITE_DATA_OFFSET + data.length() + 2;
+        setWriteHeaderToMessage(message, addr, command);
+        for (int ii = 0; ii < data.length(); ii++) {
+            message[WRITE_DATA_OFFSET + ii] = (byte) data.charAt(ii);
+        }
+        message[length - 2] = ETX;
+        message[length - 1] = (byte) buildCheckSum(message, 6, length - 2);
+        return length;
+    }
+
+    private static void checkAddress(int addr) {
+        if (addr < 0 || addr > MAX_ADDRESS) {
+            throw new IllegalArgumentException("The address must be between 1 and 99.");
+        }
+    }
+
+    /**
+     * Set the command to the message.
+     *
+     * @param message
+     * @param command
+     * @param offset
+     */
+    private static void setCommandToMessage(byte[] message, WR3223Commands command, int offset) {
+        message[offset] = command.getFirstByte();
+        message[offset + 1] = command.getSecondByte();
+    }
+
+    /**
+     * Set the controller address to the message. Every digit of the two digit address is sent twice.
+     *
+     * @param message
+     * @param addr
+     * @param offset
+     */
+    private static void setControllerAddressToMessage(byte[] message, int addr, int offset) {
+        byte tens = (byte) ('0' + addr / 10);
+        byte ones = (byte) ('0' + addr % 10);
+        message[offset] = tens;
+        message[offset + 1] = tens;
+        message[offset + 2] = ones;
+        message[offset + 3] = ones;
+    }
+}
@@ -0,0 +1,221 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.client;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One selector thread for the TCP connections of all WR3223 things. The thread only handles the readiness of the
+ * channels, so no thread is blocked per connection while the controller answers. The thread is started with the first
+ * connection and stopped when the last connection is closed.
+ *
+ * @author Michael Fraefel
+ *
+ */
+final class WR3223SocketSelector implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WR3223SocketSelector.class);
+
+    /**
+     * Timeout for the registration of a channel in milliseconds.
+     */
+    private static final long REGISTER_TIMEOUT = 5000;
+
+    /**
+     * Handler for the ready operations of a registered channel.
+     */
+    interface SelectionHandler {
+
+        /**
+         * Called by the selector thread when the channel is ready for one of its interest operations.
+         *
+         * @param key
+         */
+        void selected(SelectionKey key);
+
+        /**
+         * Called by the selector thread when {@link #selected(SelectionKey)} failed unexpectedly. The key is already
+         * cancelled, so only the connection of this handler is lost.
+         *
+         * @param e
+         */
+        void selectionFailed(RuntimeException e);
+    }
+
+    @Nullable
+    private static WR3223SocketSelector instance;
+
+    private static int usageCount;
+
+    private final Selector selector;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean running = true;
+
+    private WR3223SocketSelector() throws IOException {
+        selector = Selector.open();
+        Thread thread = new Thread(this, "OH-binding-wr3223-selector");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Get the shared selector. Every call must be followed by a call of {@link #release(WR3223SocketSelector)}.
+     *
+     * @return the shared selector.
+     * @throws IOException
+     */
+    static synchronized WR3223SocketSelector acquire() throws IOException {
+        WR3223SocketSelector selector = instance;
+        if (selector == null) {
+            selector = new WR3223SocketSelector();
+            instance = selector;
+        }
+        usageCount++;
+        return selector;
+    }
+
+    /**
+     * Release the shared selector. The selector thread stops, when the selector is no longer used.
+     *
+     * @param selector
+     */
+    static synchronized void release(WR3223SocketSelector selector) {
+        if (instance == selector && --usageCount == 0) {
+            instance = null;
+            selector.running = false;
+            selector.selector.wakeup();
+        }
+    }
+
+    /**
+     * Register a channel at the selector. The registration is done by the selector thread.
+     *
+     * @param channel non blocking channel
+     * @param ops interest operations
+     * @param handler handler for the ready operations
+     * @return the selection key of the channel.
+     * @throws IOException
+     */
+    SelectionKey register(SocketChannel channel, int ops, SelectionHandler handler) throws IOException {
+        CompletableFuture<SelectionKey> future = new CompletableFuture<>();
+        tasks.add(() -> {
+            try {
+                future.complete(channel.register(selector, ops, handler));
+            } catch (ClosedChannelException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        selector.wakeup();
+        try {
+            return future.get(REGISTER_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException("Timeout by registering the channel.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Registration of the channel was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Couldn't register the channel.", e.getCause());
+        }
+    }
+
+    /**
+     * Change the interest operations of a registered channel.
+     *
+     * @param key
+     * @param ops
+     */
+    void setInterestOps(SelectionKey key, int ops) {
+        try {
+            if (key.interestOps() != ops) {
+                key.interestOps(ops);
+                selector.wakeup();
+            }
+        } catch (CancelledKeyException e) {
+            logger.debug("Channel is already closed.");
+        }
+    }
+
+    /**
+     * Hand the ready operations to the handler of the key. A failing handler only loses its own connection, the
+     * selector thread keeps serving the other connections.
+     *
+     * @param key
+     */
+    private void select(SelectionKey key) {
+        SelectionHandler handler = (SelectionHandler) key.attachment();
+        try {
+            handler.selected(key);
+        } catch (RuntimeException e) {
+            key.cancel();
+            logger.warn("Handling the WR3223 connection failed.", e);
+            try {
+                handler.selectionFailed(e);
+            } catch (RuntimeException e2) {
+                logger.warn("Closing the failed WR3223 connection failed.", e2);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        logger.warn("Task of the WR3223 selector failed.", e);
+                    }
+                }
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (key.isValid()) {
+                        select(key);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Selector for the WR3223 connections failed.", e);
+        } finally {
+            synchronized (WR3223SocketSelector.class) {
+                if (instance == this) {
+                    instance = null;
+                    usageCount = 0;
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                logger.debug("Couldn't close selector.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.client;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the threads of the binding. The cycles wait for up to several seconds for their requests, so they don't run
+ * on the shared thread pools of openHAB. If the JDK supports virtual threads, the threads are virtual and a waiting
+ * cycle doesn't occupy a platform thread. Otherwise the binding uses its own daemon threads.
+ *
+ * The native reads and writes of a serial port pin a virtual thread to its carrier thread, so the serial port is only
+ * accessed by platform threads.
+ *
+ * @author Michael Fraefel
+ *
+ */
+public final class WR3223Threads {
+
+    private static final Logger logger = LoggerFactory.getLogger(WR3223Threads.class);
+
+    /**
+     * Factory for virtual threads or null if the JDK has no virtual threads. The factory is looked up by reflection,
+     * because the binding is compiled for a JDK without virtual threads.
+     */
+    @Nullable
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = createVirtualThreadFactory();
+
+    /**
+     * Time in seconds, after which an idle thread of a cached executor ends.
+     */
+    private static final long IDLE_TIMEOUT = 60;
+
+    private WR3223Threads() {
+    }
+
+    /**
+     * @return true if the threads of the binding are virtual.
+     */
+    public static boolean isVirtual() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    /**
+     * Create a thread, which isn't started yet.
+     *
+     * @param task
+     * @param name name of the thread
+     * @return a virtual thread or a platform daemon thread.
+     */
+    public static Thread newThread(Runnable task, String name) {
+        ThreadFactory virtualThreadFactory = VIRTUAL_THREAD_FACTORY;
+        Thread thread;
+        if (virtualThreadFactory != null) {
+            thread = virtualThreadFactory.newThread(task);
+        } else {
+            thread = new Thread(task);
+            thread.setDaemon(true);
+        }
+        thread.setName(name);
+        return thread;
+    }
+
+    /**
+     * Create a platform daemon thread, which isn't started yet. Used for blocking native calls, which would pin a
+     * virtual thread.
+     *
+     * @param task
+     * @param name name of the thread
+     * @return the platform thread.
+     */
+    public static Thread newPlatformThread(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Create a scheduler with one thread. The tasks of the scheduler are executed one after the other, so one
+     * scheduler per controller or bus keeps its cycles from running in parallel.
+     *
+     * @param name name of the thread
+     * @return the scheduler, which must be shut down by the caller.
+     */
+    public static ScheduledExecutorService newScheduler(String name) {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, task -> newThread(task, name));
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * Create a scheduler with one platform thread for tasks with blocking native calls, like opening a serial port.
+     *
+     * @param name name of the thread
+     * @return the scheduler, which must be shut down by the caller.
+     */
+    public static ScheduledExecutorService newPlatformScheduler(String name) {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+                task -> newPlatformThread(task, name));
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * Create an executor for rare short tasks. A thread is created when no idle thread is available, idle threads
+     * end after a minute.
+     *
+     * @param name name of the threads
+     * @return the executor, which doesn't need to be shut down.
+     */
+    public static ExecutorService newCachedExecutor(String name) {
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, IDLE_TIMEOUT, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                task -> newThread(task, name));
+    }
+
+    private static @Nullable ThreadFactory createVirtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Object factory = Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+            logger.debug("The WR3223 binding uses virtual threads.");
+            return (ThreadFactory) factory;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // No virtual threads or only as preview feature
+            logger.debug("The WR3223 binding uses platform threads, because virtual threads aren't available.");
+            return null;
+        }
+    }
+}
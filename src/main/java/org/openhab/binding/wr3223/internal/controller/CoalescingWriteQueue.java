@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.controller;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Values to write to the WR3223. There is one slot per command type, so a new value replaces a value which isn't
+ * written yet and many commands result in only one write. The queue is lock free: the command thread puts the values,
+ * the polling thread takes them.
+ * <p>
+ * A value is stored before its dirty bit is set and the dirty bit is cleared before the value is taken. So a value
+ * put while a write is in progress is always written afterwards.
+ *
+ * @author Michael Fraefel
+ *
+ */
+final class CoalescingWriteQueue {
+
+    private static final WR3223CommandType[] TYPES = WR3223CommandType.values();
+
+    private final AtomicIntegerArray values = new AtomicIntegerArray(TYPES.length);
+
+    /**
+     * One bit per command type, set if the value of the slot must be written.
+     */
+    private final AtomicLongArray dirty = new AtomicLongArray((TYPES.length + 63) / 64);
+
+    /**
+     * Store the value to write. A pending value of the same command type is replaced.
+     *
+     * @param type
+     * @param value
+     */
+    void put(WR3223CommandType type, int value) {
+        values.set(type.ordinal(), value);
+        markDirty(type.ordinal());
+    }
+
+    /**
+     * @return true if a value of the command type must be written.
+     */
+    boolean isPending(WR3223CommandType type) {
+        int index = type.ordinal();
+        return (dirty.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * Find the next command type with a pending value.
+     *
+     * @param fromIndex ordinal to start the search
+     * @return the command type or null if no value is pending from the index on.
+     */
+    @Nullable
+    WR3223CommandType nextPending(int fromIndex) {
+        for (int word = fromIndex >>> 6; word < dirty.length(); word++) {
+            long bits = dirty.get(word);
+            if (word == fromIndex >>> 6) {
+                bits &= -1L << fromIndex;
+            }
+            if (bits != 0) {
+                return TYPES[(word << 6) + Long.numberOfTrailingZeros(bits)];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Take the pending value of the command type for writing. If the write fails, {@link #retry(WR3223CommandType)}
+     * must be called.
+     *
+     * @param type
+     * @return the value to write.
+     */
+    int take(WR3223CommandType type) {
+        int index = type.ordinal();
+        long mask = 1L << index;
+        dirty.getAndAccumulate(index >>> 6, mask, (bits, m) -> bits & ~m);
+        return values.get(index);
+    }
+
+    /**
+     * Mark the value of the command type as pending again, because the write failed. The slot contains either the
+     * taken value or a newer value, which is written instead.
+     *
+     * @param type
+     */
+    void retry(WR3223CommandType type) {
+        markDirty(type.ordinal());
+    }
+
+    private void markDirty(int index) {
+        dirty.getAndAccumulate(index >>> 6, 1L << index, (bits, mask) -> bits | mask);
+    }
+}
@@ -0,0 +1,258 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.controller;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.wr3223.internal.WR3223BusConfiguration;
+import org.openhab.binding.wr3223.internal.client.AbstractWR3223Connector;
+import org.openhab.binding.wr3223.internal.client.ConnectResult;
+import org.openhab.binding.wr3223.internal.client.SerialWR3223Connector;
+import org.openhab.binding.wr3223.internal.client.TcpWR3223Connector;
+import org.openhab.core.io.transport.serial.SerialPortManager;
+import org.openhab.core.thing.ThingStatus;
+import org.openhab.core.thing.ThingStatusDetail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Establishes the connection to the WR3223 and reconnects in the background, after the connection was lost. The delay
+ * between the attempts grows exponentially with a random jitter, so a flapping gateway isn't flooded with connects
+ * and the polling thread never waits for a connect.
+ *
+ * @author Michael Fraefel
+ *
+ */
+public final class ConnectionManager implements WR3223Connection {
+
+    /**
+     * Notified about the state of the connection.
+     */
+    public interface Listener {
+
+        /**
+         * Called after every successful connect.
+         *
+         * @param connector the new connector
+         */
+        void connected(AbstractWR3223Connector connector);
+
+        /**
+         * Called when the state of the connection changed.
+         */
+        void connectionStatusChanged(ThingStatus status, ThingStatusDetail statusDetail,
+                @Nullable String description);
+    }
+
+    /**
+     * Delay before the first reconnect in milliseconds.
+     */
+    private static final long INITIAL_RECONNECT_DELAY = 1000;
+
+    /**
+     * Maximum delay between two connects in milliseconds.
+     */
+    private static final long MAX_RECONNECT_DELAY = 120000;
+
+    /**
+     * A connection which lasted this time in milliseconds resets the delay. So a gateway which accepts connections
+     * but drops them right away still gets the growing delay.
+     */
+    private static final long STABLE_CONNECTION_TIME = 60000;
+
+    private final Logger logger = LoggerFactory.getLogger(ConnectionManager.class);
+
+    private final WR3223BusConfiguration config;
+    private final SerialPortManager serialPortManager;
+    private final String thingId;
+    private final Listener listener;
+    private final ScheduledExecutorService scheduler;
+
+    @Nullable
+    private volatile AbstractWR3223Connector connector;
+
+    /*
+     * Reconnect state, guarded by this.
+     */
+    @Nullable
+    private ScheduledFuture<?> connectJob;
+    private int failedAttempts;
+    private long connectTime;
+    private boolean closed;
+
+    /**
+     * @param config parameters of the connection
+     * @param serialPortManager
+     * @param thingId owner of the serial port
+     * @param listener
+     * @param scheduler executes the connects
+     */
+    public ConnectionManager(WR3223BusConfiguration config, SerialPortManager serialPortManager, String thingId,
+            Listener listener, ScheduledExecutorService scheduler) {
+        this.config = config;
+        this.serialPortManager = serialPortManager;
+        this.thingId = thingId;
+        this.listener = listener;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Connect in the background.
+     */
+    public synchronized void start() {
+        if (!closed && connectJob == null && connector == null) {
+            connectJob = scheduler.schedule(this::connect, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return the connector or null if not connected.
+     */
+    @Override
+    @Nullable
+    public AbstractWR3223Connector getConnector() {
+        return connector;
+    }
+
+    /**
+     * Close the lost connection and reconnect in the background. Calls for a connector which was already replaced
+     * are ignored, so several failed transactions of one connection only result in one reconnect.
+     *
+     * @param lost the connector of the lost connection
+     * @param e the cause
+     */
+    @Override
+    public void connectionLost(AbstractWR3223Connector lost, IOException e) {
+        synchronized (this) {
+            if (closed || connector != lost) {
+                return;
+            }
+            connector = null;
+            if (System.nanoTime() - connectTime >= TimeUnit.MILLISECONDS.toNanos(STABLE_CONNECTION_TIME)) {
+                failedAttempts = 0;
+            }
+        }
+        logger.error("Communication error to WR3223.", e);
+        logger.debug("Request statistics of the lost connection: {}", lost.getOutcomeStatistics());
+        closeConnector(lost);
+        String message = e.getMessage();
+        listener.connectionStatusChanged(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
+                message != null ? message : "Connection lost.");
+        scheduleReconnect();
+    }
+
+    /**
+     * Close the connection and stop reconnecting.
+     */
+    public void close() {
+        AbstractWR3223Connector connector;
+        synchronized (this) {
+            closed = true;
+            ScheduledFuture<?> connectJob = this.connectJob;
+            if (connectJob != null) {
+                connectJob.cancel(false);
+                this.connectJob = null;
+            }
+            connector = this.connector;
+            this.connector = null;
+        }
+        if (connector != null) {
+            closeConnector(connector);
+        }
+    }
+
+    private void connect() {
+        synchronized (this) {
+            connectJob = null;
+            if (closed) {
+                return;
+            }
+        }
+        AbstractWR3223Connector newConnector;
+        ConnectResult result;
+        if (config.host != null) {
+            TcpWR3223Connector tcpConnector = new TcpWR3223Connector();
+            tcpConnector.setResponseTimeoutLimits(config.minResponseTimeout, config.maxResponseTimeout);
+            result = tcpConnector.connect(config.host, config.port);
+            newConnector = tcpConnector;
+        } else if (config.serialPort != null) {
+            SerialWR3223Connector serialConnector = new SerialWR3223Connector();
+            serialConnector.setResponseTimeoutLimits(config.minResponseTimeout, config.maxResponseTimeout);
+            result = serialConnector.connect(serialPortManager, thingId, config.serialPort, 9600);
+            newConnector = serialConnector;
+        } else {
+            // Retrying doesn't help
+            listener.connectionStatusChanged(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR,
+                    "IP or serial connection must be configured.");
+            return;
+        }
+
+        if (result.getStatus() != ThingStatus.ONLINE) {
+            closeConnector(newConnector);
+            listener.connectionStatusChanged(result.getStatus(), result.getStatusDetail(), result.getDescription());
+            scheduleReconnect();
+            return;
+        }
+        synchronized (this) {
+            if (closed) {
+                closeConnector(newConnector);
+                return;
+            }
+            connectTime = System.nanoTime();
+            connector = newConnector;
+        }
+        if (config.host != null) {
+            logger.info("Connected to WR3223 over tcp to host {}:{}.", config.host, config.port);
+        } else {
+            logger.info("Connected to WR3223 over serial port {}.", config.serialPort);
+        }
+        listener.connectionStatusChanged(ThingStatus.ONLINE, ThingStatusDetail.NONE, null);
+        listener.connected(newConnector);
+    }
+
+    /**
+     * Schedule the next connect.
+     */
+    private synchronized void scheduleReconnect() {
+        if (closed || connectJob != null) {
+            return;
+        }
+        long delay = getReconnectDelay(failedAttempts, ThreadLocalRandom.current());
+        failedAttempts++;
+        logger.debug("Reconnect to WR3223 in {} ms (attempt {}).", delay, failedAttempts);
+        connectJob = scheduler.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The delay doubles with every failed attempt up to {@link #MAX_RECONNECT_DELAY}, half of the delay is random. So
+     * things which lost the connection at the same time don't reconnect at the same time.
+     *
+     * @param failedAttempts number of failed attempts since the last stable connection
+     * @param random source of the random part
+     * @return the delay in milliseconds.
+     */
+    static long getReconnectDelay(int failedAttempts, Random random) {
+        long delay = Math.min(MAX_RECONNECT_DELAY, INITIAL_RECONNECT_DELAY << Math.min(failedAttempts, 16));
+        return delay / 2 + (long) (random.nextDouble() * (delay / 2 + 1));
+    }
+
+    private void closeConnector(AbstractWR3223Connector connector) {
+        try {
+            connector.close();
+        } catch (IOException e) {
+            logger.error("Couldn't close communication to WR3223.", e);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.controller;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.wr3223.internal.WR3223BusConfiguration;
+import org.openhab.binding.wr3223.internal.client.AbstractWR3223Connector;
+import org.openhab.binding.wr3223.internal.client.WR3223Threads;
+import org.openhab.core.io.transport.serial.SerialPortManager;
+import org.openhab.core.thing.ThingStatus;
+import org.openhab.core.thing.ThingStatusDetail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares one connection between all things with the same endpoint (host and port or serial port). Most serial to
+ * ethernet gateways accept only one client or mix up the answers of several clients, so every endpoint has only one
+ * {@link ConnectionManager}. The connection is closed when the last thing released it. Every endpoint connects on its
+ * own thread, because a connect may block for several seconds.
+ *
+ * @author Michael Fraefel
+ *
+ */
+public final class ConnectionPool {
+
+    /**
+     * Fraction of the refresh interval between the start slots. The golden ratio spreads any number of things evenly
+     * over the refresh interval, without knowing the number of things in advance.
+     */
+    private static final double START_SLOT_FRACTION = 0.6180339887;
+
+    private final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final SerialPortManager serialPortManager;
+
+    /**
+     * Connections by endpoint, guarded by this.
+     */
+    private final Map<String, Endpoint> endpoints = new HashMap<>();
+
+    public ConnectionPool(SerialPortManager serialPortManager) {
+        this.serialPortManager = serialPortManager;
+    }
+
+    /**
+     * Lease the connection to the endpoint of the configuration. The connection is created with the configuration of
+     * the first lease.
+     *
+     * @param config parameters of the connection
+     * @param thingId thing which leases the connection
+     * @return the lease, which must be started with {@link Lease#start(ConnectionManager.Listener)}.
+     */
+    public synchronized Lease lease(WR3223BusConfiguration config, String thingId) {
+        String key = getEndpointKey(config, thingId);
+        Endpoint endpoint = endpoints.get(key);
+        if (endpoint == null) {
+            endpoint = new Endpoint(key, config, thingId);
+            endpoints.put(key, endpoint);
+        } else {
+            logger.info("Thing {} shares the connection to {}.", thingId, key);
+        }
+        return new Lease(endpoint, endpoint.nextStartSlot());
+    }
+
+    private synchronized void release(Lease lease) {
+        Endpoint endpoint = lease.endpoint;
+        ConnectionManager.Listener listener = lease.listener;
+        if (listener != null) {
+            endpoint.listeners.remove(listener);
+        }
+        if (--endpoint.leaseCount == 0) {
+            endpoints.remove(endpoint.key);
+            endpoint.connectionManager.close();
+            endpoint.scheduler.shutdown();
+        }
+    }
+
+    /**
+     * @return the key of the endpoint. Things without connection parameters don't share a connection.
+     */
+    private static String getEndpointKey(WR3223BusConfiguration config, String thingId) {
+        if (config.host != null) {
+            return "tcp://" + config.host.toLowerCase(Locale.ROOT) + ":" + config.port;
+        } else if (config.serialPort != null) {
+            return "serial://" + config.serialPort;
+        }
+        return "thing://" + thingId;
+    }
+
+    /**
+     * Connection to one endpoint. Forwards the state of the connection to the listeners of all leases.
+     */
+    private final class Endpoint implements ConnectionManager.Listener {
+
+        private final String key;
+
+        private final ScheduledExecutorService scheduler;
+
+        private final ConnectionManager connectionManager;
+
+        private final List<ConnectionManager.Listener> listeners = new CopyOnWriteArrayList<>();
+
+        /**
+         * Number of not released leases, guarded by the pool.
+         */
+        private int leaseCount;
+
+        /**
+         * Number of leases so far, guarded by the pool.
+         */
+        private int startSlots;
+
+        /*
+         * Last status of the connection, for the listeners of new leases. Guarded by this.
+         */
+        @Nullable
+        private ThingStatus status;
+        private ThingStatusDetail statusDetail = ThingStatusDetail.NONE;
+        @Nullable
+        private String description;
+
+        private Endpoint(String key, WR3223BusConfiguration config, String thingId) {
+            this.key = key;
+            // Opening a serial port is a blocking native call, which would pin a virtual thread
+            this.scheduler = config.host == null
+                    ? WR3223Threads.newPlatformScheduler("OH-binding-wr3223-connect-" + key)
+                    : WR3223Threads.newScheduler("OH-binding-wr3223-connect-" + key);
+            // The connection manager calls the endpoint only after the start
+            this.connectionManager = new ConnectionManager(config, serialPortManager, thingId, this, scheduler);
+        }
+
+        private int nextStartSlot() {
+            leaseCount++;
+            return startSlots++;
+        }
+
+        @Override
+        public void connected(AbstractWR3223Connector connector) {
+            for (ConnectionManager.Listener listener : listeners) {
+                listener.connected(connector);
+            }
+        }
+
+        @Override
+        public void connectionStatusChanged(ThingStatus status, ThingStatusDetail statusDetail,
+                @Nullable String description) {
+            synchronized (this) {
+                this.status = status;
+                this.statusDetail = statusDetail;
+                this.description = description;
+            }
+            for (ConnectionManager.Listener listener : listeners) {
+                listener.connectionStatusChanged(status, statusDetail, description);
+            }
+        }
+
+        /**
+         * Add the listener and tell it the current state of the connection. The listener isn't called while a lock is
+         * held, because it may wait for a running cycle.
+         */
+        private void join(ConnectionManager.Listener listener) {
+            ThingStatus status;
+            ThingStatusDetail statusDetail;
+            String description;
+            synchronized (this) {
+                listeners.add(listener);
+                status = this.status;
+                statusDetail = this.statusDetail;
+                description = this.description;
+            }
+            if (status != null) {
+                listener.connectionStatusChanged(status, statusDetail, description);
+            }
+            AbstractWR3223Connector connector = connectionManager.getConnector();
+            if (connector != null) {
+                listener.connected(connector);
+            }
+            connectionManager.start();
+        }
+    }
+
+    /**
+     * Use of a pooled connection by one thing.
+     */
+    public final class Lease implements WR3223Connection, Closeable {
+
+        private final Endpoint endpoint;
+
+        private final int startSlot;
+
+        @Nullable
+        private volatile ConnectionManager.Listener listener;
+
+        /**
+         * Guarded by the pool.
+         */
+        private boolean closed;
+
+        private Lease(Endpoint endpoint, int startSlot) {
+            this.endpoint = endpoint;
+            this.startSlot = startSlot;
+        }
+
+        /**
+         * Connect in the background or use the existing connection.
+         *
+         * @param listener notified about the state of the connection
+         */
+        public void start(ConnectionManager.Listener listener) {
+            this.listener = listener;
+            endpoint.join(listener);
+        }
+
+        /**
+         * The things on one connection start their cycles at different times, so their requests don't collide.
+         *
+         * @param refreshInterval refresh interval of the thing in milliseconds
+         * @return the delay of the first cycle in milliseconds.
+         */
+        public long getStartDelay(long refreshInterval) {
+            double fraction = startSlot * START_SLOT_FRACTION;
+            return (long) ((fraction - Math.floor(fraction)) * refreshInterval);
+        }
+
+        @Override
+        public @Nullable AbstractWR3223Connector getConnector() {
+            return endpoint.connectionManager.getConnector();
+        }
+
+        @Override
+        public void connectionLost(AbstractWR3223Connector lost, IOException e) {
+            endpoint.connectionManager.connectionLost(lost, e);
+        }
+
+        /**
+         * Release the connection. The connection is closed with the last lease.
+         */
+        @Override
+        public void close() {
+            synchronized (ConnectionPool.this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            }
+            release(this);
+        }
+    }
+}
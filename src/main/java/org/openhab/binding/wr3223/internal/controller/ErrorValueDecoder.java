@@ -42,8 +42,6 @@ public final class ErrorValueDecoder {
     private boolean error_preheating;
 
     public static ErrorValueDecoder valueOf(String read) {
-
-        ErrorValueDecoder errorValue = new ErrorValueDecoder();
         read = read.trim();
         int decPoint = read.indexOf(".");
         if (decPoint > 0) {
@@ -52,7 +50,11 @@ public final class ErrorValueDecoder {
         if (logger.isDebugEnabled()) {
             logger.debug("WR3223.ErrorValueDecoder read string={}.", read);
         }
-        int value = Integer.valueOf(read.trim());
+        return valueOf(Integer.parseInt(read.trim()));
+    }
+
+    public static ErrorValueDecoder valueOf(int value) {
+        ErrorValueDecoder errorValue = new ErrorValueDecoder();
 
         if ((value & ERROR_TEMP_SENSOR_SHORT) == ERROR_TEMP_SENSOR_SHORT) {
             errorValue.error_temp_sensor_short = true;
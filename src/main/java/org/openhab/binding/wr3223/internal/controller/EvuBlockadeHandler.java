@@ -18,14 +18,17 @@ final class EvuBlockadeHandler {
     private boolean blockade = false;
 
     public static EvuBlockadeHandler valueOf(String read) {
-        EvuBlockadeHandler handler = new EvuBlockadeHandler();
         read = read.trim();
         int decPoint = read.indexOf(".");
         if (decPoint > 0) {
             read = read.substring(0, decPoint);
         }
+        return valueOf(Integer.parseInt(read.trim()));
+    }
 
-        int value = Integer.valueOf(read.trim()) * -1;
+    public static EvuBlockadeHandler valueOf(int read) {
+        EvuBlockadeHandler handler = new EvuBlockadeHandler();
+        int value = read * -1;
         if (logger.isDebugEnabled()) {
             logger.debug("WR3223.EvuBlockadeHandler value={}.", value);
         }
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Plans which commands are read in a cycle. The commands of the normal and slow tier are spread over the cycles of
+ * their interval, so every cycle reads about the same number of commands. The commands can be changed while polling.
+ * Reads which didn't fit into a cycle are carried over to the next cycle.
+ *
+ * @author Michael Fraefel
+ *
+ */
+final class PollPlanner {
+
+    private final Map<PollingTier, WR3223CommandType[]> commandsByTier = new EnumMap<>(PollingTier.class);
+
+    private final int normalCycles;
+    private final int slowCycles;
+
+    /**
+     * Commands to read in the current cycle. The list is reused for every cycle.
+     */
+    private final List<WR3223CommandType> dueCommands = new ArrayList<>();
+
+    /**
+     * Commands which weren't read in their cycle.
+     */
+    private final Set<WR3223CommandType> carriedOver = EnumSet.noneOf(WR3223CommandType.class);
+
+    private long cycle;
+
+    private boolean fullRefresh = true;
+
+    /**
+     * @param refreshInterval interval of a cycle in seconds
+     * @param normalRefreshInterval interval of the normal tier in seconds
+     * @param slowRefreshInterval interval of the slow tier in seconds
+     */
+    PollPlanner(int refreshInterval, int normalRefreshInterval, int slowRefreshInterval) {
+        this.normalCycles = toCycles(normalRefreshInterval, refreshInterval);
+        this.slowCycles = toCycles(slowRefreshInterval, refreshInterval);
+        for (PollingTier tier : PollingTier.values()) {
+            commandsByTier.put(tier, new WR3223CommandType[0]);
+        }
+    }
+
+    /**
+     * Set the commands to read.
+     *
+     * @param commands
+     * @param tierOfCommand provides the polling tier of each command
+     */
+    synchronized void setCommands(WR3223CommandType[] commands,
+            Function<WR3223CommandType, PollingTier> tierOfCommand) {
+        Map<PollingTier, List<WR3223CommandType>> lists = new EnumMap<>(PollingTier.class);
+        for (PollingTier tier : PollingTier.values()) {
+            lists.put(tier, new ArrayList<>());
+        }
+        for (WR3223CommandType command : commands) {
+            lists.get(tierOfCommand.apply(command)).add(command);
+        }
+        for (PollingTier tier : PollingTier.values()) {
+            commandsByTier.put(tier, lists.get(tier).toArray(new WR3223CommandType[0]));
+        }
+        carriedOver.retainAll(Arrays.asList(commands));
+    }
+
+    /**
+     * Read all commands, including the on demand commands, in the next cycle.
+     */
+    synchronized void requestFullRefresh() {
+        fullRefresh = true;
+    }
+
+    /**
+     * Read the command in the next cycle, because it wasn't read in its cycle.
+     *
+     * @param command
+     */
+    synchronized void carryOver(WR3223CommandType command) {
+        carriedOver.add(command);
+    }
+
+    /**
+     * Get the commands to read in the next cycle. The carried over commands are read first.
+     *
+     * @return the due commands. The list is only valid until the next call.
+     */
+    synchronized List<WR3223CommandType> nextCycle() {
+        dueCommands.clear();
+        dueCommands.addAll(carriedOver);
+        addDue(commandsByTier.get(PollingTier.FAST), 1);
+        addDue(commandsByTier.get(PollingTier.NORMAL), normalCycles);
+        addDue(commandsByTier.get(PollingTier.SLOW), slowCycles);
+        if (fullRefresh) {
+            addDue(commandsByTier.get(PollingTier.ON_DEMAND), 1);
+        }
+        fullRefresh = false;
+        carriedOver.clear();
+        cycle++;
+        return dueCommands;
+    }
+
+    /**
+     * Add the commands which are due in this cycle. Command i is read in the cycle i * period / n of each period.
+     */
+    private void addDue(WR3223CommandType[] commands, int period) {
+        int slot = (int) (cycle % period);
+        for (int ii = 0; ii < commands.length; ii++) {
+            if ((fullRefresh || (int) ((long) ii * period / commands.length) == slot)
+                    && !carriedOver.contains(commands[ii])) {
+                dueCommands.add(commands[ii]);
+            }
+        }
+    }
+
+    private static int toCycles(int interval, int refreshInterval) {
+        if (refreshInterval <= 0) {
+            return 1;
+        }
+        return Math.max(1, Math.round((float) interval / refreshInterval));
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.controller;
+
+/**
+ * Defines how often the value of a channel is read from the WR3223.
+ *
+ * @author Michael Fraefel
+ *
+ */
+public enum PollingTier {
+
+    /** Read in every cycle (refresh interval). Used for the measured values. */
+    FAST,
+
+    /** Read every normal refresh interval. Used for the operation state. */
+    NORMAL,
+
+    /** Read every slow refresh interval. Used for the parameters, which only change by the user. */
+    SLOW,
+
+    /** Only read on a refresh command and at the start. */
+    ON_DEMAND
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.controller;
+
+import java.util.Arrays;
+
+/**
+ * Decides if a value must be published to its channel. A value is only published, if it changed by more than the
+ * deadband of the channel or if the republish interval elapsed. The last published values are stored in primitive
+ * arrays indexed by the ordinal of the command type.
+ *
+ * @author Michael Fraefel
+ *
+ */
+final class PublishFilter {
+
+    private static final int SIZE = WR3223CommandType.values().length;
+
+    private final double[] lastValues = new double[SIZE];
+    private final long[] lastPublishTimes = new long[SIZE];
+    private final boolean[] published = new boolean[SIZE];
+    private final double[] deadbands = new double[SIZE];
+
+    /**
+     * Interval in milliseconds after which an unchanged value is published again. 0 to only publish changes.
+     */
+    private final long republishInterval;
+
+    private volatile boolean resetRequested;
+
+    /**
+     * @param republishInterval interval in seconds after which an unchanged value is published again. 0 to only
+     *            publish changes.
+     */
+    PublishFilter(int republishInterval) {
+        this.republishInterval = Math.max(0, republishInterval) * 1000L;
+    }
+
+    /**
+     * Set the deadband of a channel. A change of the value smaller than the deadband is not published.
+     *
+     * @param commandType
+     * @param deadband
+     */
+    void setDeadband(WR3223CommandType commandType, double deadband) {
+        deadbands[commandType.ordinal()] = Math.max(0, deadband);
+    }
+
+    /**
+     * Publish all values again, also if they didn't change.
+     */
+    void reset() {
+        resetRequested = true;
+    }
+
+    boolean shouldPublish(WR3223CommandType commandType, boolean value) {
+        return shouldPublish(commandType, value ? 1 : 0);
+    }
+
+    /**
+     * Check if the value must be published. If true is returned, the value is stored as published.
+     *
+     * @param commandType
+     * @param value
+     * @return true if the value must be published.
+     */
+    boolean shouldPublish(WR3223CommandType commandType, double value) {
+        if (resetRequested) {
+            resetRequested = false;
+            Arrays.fill(published, false);
+        }
+        int index = commandType.ordinal();
+        long now = System.currentTimeMillis();
+        if (published[index]) {
+            double deadband = deadbands[index];
+            boolean changed = deadband > 0 ? Math.abs(value - lastValues[index]) >= deadband
+                    : Double.compare(value, lastValues[index]) != 0;
+            boolean republish = republishInterval > 0 && now - lastPublishTimes[index] >= republishInterval;
+            if (!changed && !republish) {
+                return false;
+            }
+        }
+        published[index] = true;
+        lastValues[index] = value;
+        lastPublishTimes[index] = now;
+        return true;
+    }
+}
@@ -40,14 +40,17 @@ final class RelaisValueDecoder {
     private boolean preHeaterRadiatorActive;
 
     public static RelaisValueDecoder valueOf(String read) {
-        RelaisValueDecoder relaisValue = new RelaisValueDecoder();
         read = read.trim();
         int decPoint = read.indexOf(".");
         if (decPoint > 0) {
             read = read.substring(0, decPoint);
         }
         logger.debug("WR3223.RelaisValueDecoder read string={}.", read);
-        int value = Integer.valueOf(read.trim());
+        return valueOf(Integer.parseInt(read.trim()));
+    }
+
+    public static RelaisValueDecoder valueOf(int value) {
+        RelaisValueDecoder relaisValue = new RelaisValueDecoder();
         if ((value & FLAG_COMPRESSOR) == FLAG_COMPRESSOR) {
             relaisValue.compressor = true;
         }
@@ -2,28 +2,28 @@ package org.openhab.binding.wr3223.internal.controller;
 
 /**
  * Hold the values which must be send every 20 seconds to the WR3223. The values received from the bus are stored in
- * this class.
+ * this class. The values are set by the command thread and read by the polling thread, so all fields are volatile.
  *
  * @author Michael Fraefel
  *
  */
 final class StatusValueHolder {
 
-    private boolean heatPumpOn = false;
-    private int ventilationLevel = 2;
-    private boolean additionalHeatingOn = false;
-    private boolean coolingOn = false;
+    private volatile boolean heatPumpOn = false;
+    private volatile int ventilationLevel = 2;
+    private volatile boolean additionalHeatingOn = false;
+    private volatile boolean coolingOn = false;
 
-    private boolean malfunction = false;
-    private final int FLAG_MALFUNCTION = 16;
+    private volatile boolean malfunction = false;
+    private static final int FLAG_MALFUNCTION = 16;
 
-    private boolean heatPumpOnStatus = false;
-    private final int FLAG_HEAT_PUMP_STATUS = 32;
+    private volatile boolean heatPumpOnStatus = false;
+    private static final int FLAG_HEAT_PUMP_STATUS = 32;
 
-    private boolean additionalHeatingOnStatus = false;
-    private final int FLAG_ADDITIONAL_HEATER_STATUS = 64;
+    private volatile boolean additionalHeatingOnStatus = false;
+    private static final int FLAG_ADDITIONAL_HEATER_STATUS = 64;
 
-    private final int STATUS_MASK = 112;
+    private static final int STATUS_MASK = 112;
 
     /**
      * @param "Wärmepumpe ein (bei Anlagen mit Wärmepumpe)"
@@ -76,6 +76,7 @@ final class StatusValueHolder {
 
     public String getStatusValue() {
 
+        int ventilationLevel = this.ventilationLevel;
         int data = 0;
         if (!heatPumpOn) {
             data += 1;
@@ -106,7 +107,11 @@ final class StatusValueHolder {
         if (decPoint > 0) {
             read = read.substring(0, decPoint);
         }
-        int value = Integer.valueOf(read.trim()) * -1;
+        valueOf(Integer.parseInt(read.trim()));
+    }
+
+    public void valueOf(int read) {
+        int value = read * -1;
 
         // Mask value as only bits 4, 5 and 6 are necessary
         value &= STATUS_MASK;
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.controller;
+
+import javax.measure.Unit;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.library.unit.SIUnits;
+import org.openhab.core.library.unit.Units;
+
+/**
+ * Kind of a numeric value of the WR3223 with its unit.
+ *
+ * @author Michael Fraefel
+ *
+ */
+public enum ValueKind {
+
+    /** Number without unit, e.g. a parameter of the solar heating. */
+    NUMBER(null, true),
+
+    /** Integer without unit, e.g. a level or a mode. */
+    INTEGER(null, false),
+
+    /** Temperature in °C. */
+    TEMPERATURE(SIUnits.CELSIUS, true),
+
+    /** Rotation speed in rpm. */
+    ROTATION_SPEED(Units.RPM, false),
+
+    /** Percentage. */
+    PERCENT(Units.PERCENT, false),
+
+    /** Voltage in V. */
+    VOLTAGE(Units.VOLT, true),
+
+    /** Time in minutes. */
+    MINUTES(Units.MINUTE, false),
+
+    /** Time in hours. */
+    HOURS(Units.HOUR, false);
+
+    @Nullable
+    private final Unit<?> unit;
+
+    private final boolean decimal;
+
+    private ValueKind(@Nullable Unit<?> unit, boolean decimal) {
+        this.unit = unit;
+        this.decimal = decimal;
+    }
+
+    /**
+     * @return the unit of the value or null if the value has no unit.
+     */
+    public @Nullable Unit<?> getUnit() {
+        return unit;
+    }
+
+    /**
+     * @return true if the value has decimal places, false if the value is an integer.
+     */
+    public boolean isDecimal() {
+        return decimal;
+    }
+}
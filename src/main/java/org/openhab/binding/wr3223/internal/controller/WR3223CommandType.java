@@ -26,6 +26,8 @@ public enum WR3223CommandType {
         {
             channelId = "temperatureEvaporator";
             wr3223Command = WR3223Commands.T1;
+            valueKind = ValueKind.TEMPERATURE;
+            pollingTier = PollingTier.FAST;
         }
     },
 
@@ -34,6 +36,8 @@ public enum WR3223CommandType {
         {
             channelId = "temperatureCondenser";
             wr3223Command = WR3223Commands.T2;
+            valueKind = ValueKind.TEMPERATURE;
+            pollingTier = PollingTier.FAST;
         }
     },
 
@@ -42,6 +46,8 @@ public enum WR3223CommandType {
         {
             channelId = "temperatureOutside";
             wr3223Command = WR3223Commands.T3;
+            valueKind = ValueKind.TEMPERATURE;
+            pollingTier = PollingTier.FAST;
         }
     },
 
@@ -50,6 +56,8 @@ public enum WR3223CommandType {
         {
             channelId = "temperatureOutgoingAir";
             wr3223Command = WR3223Commands.T4;
+            valueKind = ValueKind.TEMPERATURE;
+            pollingTier = PollingTier.FAST;
         }
     },
 
@@ -58,6 +66,8 @@ public enum WR3223CommandType {
         {
             channelId = "temperatureAfterHeatExchanger";
             wr3223Command = WR3223Commands.T5;
+            valueKind = ValueKind.TEMPERATURE;
+            pollingTier = PollingTier.FAST;
         }
     },
 
@@ -66,6 +76,8 @@ public enum WR3223CommandType {
         {
             channelId = "temperatureSupplyAir";
             wr3223Command = WR3223Commands.T6;
+            valueKind = ValueKind.TEMPERATURE;
+            pollingTier = PollingTier.FAST;
         }
     },
 
@@ -74,6 +86,8 @@ public enum WR3223CommandType {
         {
             channelId = "temperatureAfterBrinePreheating";
             wr3223Command = WR3223Commands.T7;
+            valueKind = ValueKind.TEMPERATURE;
+            pollingTier = PollingTier.FAST;
         }
     },
 
@@ -82,6 +96,8 @@ public enum WR3223CommandType {
         {
             channelId = "temperatureAfterPreheating";
             wr3223Command = WR3223Commands.T8;
+            valueKind = ValueKind.TEMPERATURE;
+            pollingTier = PollingTier.FAST;
         }
     },
 
@@ -90,6 +106,8 @@ public enum WR3223CommandType {
         {
             channelId = "rotationSpeedSupplyAirMotor";
             wr3223Command = WR3223Commands.NZ;
+            valueKind = ValueKind.ROTATION_SPEED;
+            pollingTier = PollingTier.FAST;
         }
     },
 
@@ -98,6 +116,8 @@ public enum WR3223CommandType {
         {
             channelId = "rotationSpeedExhaustAirMotor";
             wr3223Command = WR3223Commands.NA;
+            valueKind = ValueKind.ROTATION_SPEED;
+            pollingTier = PollingTier.FAST;
         }
     },
 
@@ -138,6 +158,7 @@ public enum WR3223CommandType {
         {
             channelId = "additionalHeaterOpen";
             wr3223Command = WR3223Commands.ZH;
+            valueKind = ValueKind.INTEGER;
         }
     },
 
@@ -226,6 +247,7 @@ public enum WR3223CommandType {
         {
             channelId = "ventilationLevel";
             wr3223Command = WR3223Commands.LS;
+            valueKind = ValueKind.INTEGER;
         }
     },
 
@@ -234,6 +256,7 @@ public enum WR3223CommandType {
         {
             channelId = "operationMode";
             wr3223Command = WR3223Commands.MD;
+            valueKind = ValueKind.INTEGER;
         }
     },
 
@@ -250,6 +273,7 @@ public enum WR3223CommandType {
         {
             channelId = "temperatureSupplyAirTarget";
             wr3223Command = WR3223Commands.SP;
+            valueKind = ValueKind.TEMPERATURE;
         }
     },
 
@@ -258,6 +282,8 @@ public enum WR3223CommandType {
         {
             channelId = "heatFeedbackRate";
             wr3223Command = WR3223Commands.RA;
+            valueKind = ValueKind.PERCENT;
+            pollingTier = PollingTier.FAST;
         }
     },
 
@@ -266,6 +292,7 @@ public enum WR3223CommandType {
         {
             channelId = "speedDeviationMaxLevel1";
             wr3223Command = WR3223Commands.D1;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -274,6 +301,7 @@ public enum WR3223CommandType {
         {
             channelId = "speedDeviationMaxLevel2";
             wr3223Command = WR3223Commands.D2;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -282,6 +310,7 @@ public enum WR3223CommandType {
         {
             channelId = "speedDeviationMaxLevel3";
             wr3223Command = WR3223Commands.D3;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -290,6 +319,8 @@ public enum WR3223CommandType {
         {
             channelId = "speedIncreaseEarthHeatExchangerLevel1";
             wr3223Command = WR3223Commands.E1;
+            valueKind = ValueKind.PERCENT;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -298,6 +329,8 @@ public enum WR3223CommandType {
         {
             channelId = "speedIncreaseEarthHeatExchangerLevel2";
             wr3223Command = WR3223Commands.E2;
+            valueKind = ValueKind.PERCENT;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -306,6 +339,8 @@ public enum WR3223CommandType {
         {
             channelId = "speedIncreaseEarthHeatExchangerLevel3";
             wr3223Command = WR3223Commands.E3;
+            valueKind = ValueKind.PERCENT;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -314,6 +349,8 @@ public enum WR3223CommandType {
         {
             channelId = "airExchangeDecreaseOutsideTemperature";
             wr3223Command = WR3223Commands.LR;
+            valueKind = ValueKind.TEMPERATURE;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -322,6 +359,8 @@ public enum WR3223CommandType {
         {
             channelId = "ventilationSpeedLevel1";
             wr3223Command = WR3223Commands.L1;
+            valueKind = ValueKind.PERCENT;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -330,6 +369,8 @@ public enum WR3223CommandType {
         {
             channelId = "ventilationSpeedLevel2";
             wr3223Command = WR3223Commands.L2;
+            valueKind = ValueKind.PERCENT;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -338,6 +379,8 @@ public enum WR3223CommandType {
         {
             channelId = "ventilationSpeedLevel3";
             wr3223Command = WR3223Commands.L3;
+            valueKind = ValueKind.PERCENT;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -346,6 +389,8 @@ public enum WR3223CommandType {
         {
             channelId = "summerEarthHeatExchangerActivationTemperature";
             wr3223Command = WR3223Commands.ES;
+            valueKind = ValueKind.TEMPERATURE;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -354,6 +399,8 @@ public enum WR3223CommandType {
         {
             channelId = "winterEarthHeatExchangerActivationTemperature";
             wr3223Command = WR3223Commands.EW;
+            valueKind = ValueKind.TEMPERATURE;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -362,6 +409,8 @@ public enum WR3223CommandType {
         {
             channelId = "defrostingStartTemperature";
             wr3223Command = WR3223Commands.AE;
+            valueKind = ValueKind.TEMPERATURE;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -370,6 +419,8 @@ public enum WR3223CommandType {
         {
             channelId = "defrostingEndTemperature";
             wr3223Command = WR3223Commands.AA;
+            valueKind = ValueKind.TEMPERATURE;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -378,6 +429,8 @@ public enum WR3223CommandType {
         {
             channelId = "defrostingVentilationLevel";
             wr3223Command = WR3223Commands.Az;
+            pollingTier = PollingTier.SLOW;
+            valueKind = ValueKind.INTEGER;
         }
     },
 
@@ -386,6 +439,8 @@ public enum WR3223CommandType {
         {
             channelId = "defrostingHoldOffTime";
             wr3223Command = WR3223Commands.AP;
+            valueKind = ValueKind.MINUTES;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -394,6 +449,8 @@ public enum WR3223CommandType {
         {
             channelId = "defrostingOvertravelTime";
             wr3223Command = WR3223Commands.AN;
+            valueKind = ValueKind.MINUTES;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -402,6 +459,8 @@ public enum WR3223CommandType {
         {
             channelId = "defrostingHeatFeedbackRate";
             wr3223Command = WR3223Commands.AR;
+            valueKind = ValueKind.PERCENT;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -410,6 +469,7 @@ public enum WR3223CommandType {
         {
             channelId = "solarMax";
             wr3223Command = WR3223Commands.SM;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -418,6 +478,7 @@ public enum WR3223CommandType {
         {
             channelId = "solarUsage";
             wr3223Command = WR3223Commands.SN;
+            valueKind = ValueKind.HOURS;
         }
     },
 
@@ -426,6 +487,7 @@ public enum WR3223CommandType {
         {
             channelId = "deltaTOff";
             wr3223Command = WR3223Commands.DA;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -434,6 +496,7 @@ public enum WR3223CommandType {
         {
             channelId = "deltaTOn";
             wr3223Command = WR3223Commands.DE;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -442,6 +505,8 @@ public enum WR3223CommandType {
         {
             channelId = "temperatureCondenserMax";
             wr3223Command = WR3223Commands.KM;
+            valueKind = ValueKind.TEMPERATURE;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -450,6 +515,8 @@ public enum WR3223CommandType {
         {
             channelId = "idleTimePressureReduction";
             wr3223Command = WR3223Commands.PA;
+            valueKind = ValueKind.MINUTES;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -458,6 +525,7 @@ public enum WR3223CommandType {
         {
             channelId = "supportFanLevel1EarthHeatExchanger";
             wr3223Command = WR3223Commands.S1;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -466,6 +534,7 @@ public enum WR3223CommandType {
         {
             channelId = "supportFanLevel2EarthHeatExchanger";
             wr3223Command = WR3223Commands.S2;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -474,6 +543,7 @@ public enum WR3223CommandType {
         {
             channelId = "supportFanLevel3EarthHeatExchanger";
             wr3223Command = WR3223Commands.S3;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -482,6 +552,8 @@ public enum WR3223CommandType {
         {
             channelId = "controlVoltageOutgoingAir";
             wr3223Command = WR3223Commands.UA;
+            valueKind = ValueKind.VOLTAGE;
+            pollingTier = PollingTier.FAST;
         }
     },
 
@@ -490,6 +562,8 @@ public enum WR3223CommandType {
         {
             channelId = "controlVoltageSupplyAir";
             wr3223Command = WR3223Commands.UZ;
+            valueKind = ValueKind.VOLTAGE;
+            pollingTier = PollingTier.FAST;
         }
     },
 
@@ -498,6 +572,8 @@ public enum WR3223CommandType {
         {
             channelId = "warmWaterTargetTemperature";
             wr3223Command = WR3223Commands.WS;
+            valueKind = ValueKind.TEMPERATURE;
+            pollingTier = PollingTier.SLOW;
         }
     },
 
@@ -514,6 +590,7 @@ public enum WR3223CommandType {
         {
             channelId = "heatPumpOpen";
             wr3223Command = WR3223Commands.WP;
+            valueKind = ValueKind.INTEGER;
         }
     },
 
@@ -647,6 +724,8 @@ public enum WR3223CommandType {
 
     String channelId;
     WR3223Commands wr3223Command;
+    PollingTier pollingTier = PollingTier.NORMAL;
+    ValueKind valueKind = ValueKind.NUMBER;
 
     public String getChannelId() {
         return channelId;
@@ -656,6 +735,20 @@ public enum WR3223CommandType {
         return wr3223Command;
     }
 
+    /**
+     * @return the default polling tier of the channel.
+     */
+    public PollingTier getPollingTier() {
+        return pollingTier;
+    }
+
+    /**
+     * @return the kind of the value with its unit.
+     */
+    public ValueKind getValueKind() {
+        return valueKind;
+    }
+
     public static Optional<WR3223CommandType> getByChannelId(String channelId) {
         return Arrays.stream(values()).filter(val -> val.getChannelId().equals(channelId)).findFirst();
     }
@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.controller;
+
+import java.io.IOException;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.wr3223.internal.client.AbstractWR3223Connector;
+
+/**
+ * Connection used by a controller. The connection is either owned by the controller or shared by all controllers on a
+ * bus.
+ *
+ * @author Michael Fraefel
+ *
+ */
+public interface WR3223Connection {
+
+    /**
+     * @return the connector or null if not connected.
+     */
+    @Nullable
+    AbstractWR3223Connector getConnector();
+
+    /**
+     * The connection is broken and must be reestablished.
+     *
+     * @param lost the connector of the lost connection
+     * @param e the cause
+     */
+    void connectionLost(AbstractWR3223Connector lost, IOException e);
+}
@@ -2,24 +2,40 @@ package org.openhab.binding.wr3223.internal.controller;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.EnumSet;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.measure.Unit;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.wr3223.internal.WR3223Configuration;
 import org.openhab.binding.wr3223.internal.client.AbstractWR3223Connector;
-import org.openhab.binding.wr3223.internal.client.ConnectResult;
-import org.openhab.binding.wr3223.internal.client.SerialWR3223Connector;
-import org.openhab.binding.wr3223.internal.client.TcpWR3223Connector;
+import org.openhab.binding.wr3223.internal.client.FrameException;
+import org.openhab.binding.wr3223.internal.client.RequestPriority;
 import org.openhab.binding.wr3223.internal.client.WR3223Commands;
-import org.openhab.core.io.transport.serial.SerialPortManager;
+import org.openhab.binding.wr3223.internal.client.WR3223Frame;
 import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.library.types.OnOffType;
 import org.openhab.core.library.types.OpenClosedType;
@@ -31,14 +47,29 @@ import org.openhab.core.types.Command;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class WR3223Controller implements Runnable, Closeable {
+public class WR3223Controller implements Runnable, Closeable, ConnectionManager.Listener {
 
     public interface ThingHandler {
 
-        void publishValueToBoundChannel(@NonNull WR3223CommandType wr3223CommandType, Object value);
+        /**
+         * Publish a numeric value in the unit of the {@link ValueKind} of the command type.
+         */
+        void publishValueToBoundChannel(@NonNull WR3223CommandType wr3223CommandType, double value);
+
+        void publishValueToBoundChannel(@NonNull WR3223CommandType wr3223CommandType, boolean value);
 
         boolean isLinked(@NonNull WR3223CommandType wr3223CommandType);
 
+        /**
+         * @return the polling tier of the channel. The channel configuration may override the default tier.
+         */
+        PollingTier getPollingTier(@NonNull WR3223CommandType wr3223CommandType);
+
+        /**
+         * @return the deadband of the channel. Changes of the value smaller than the deadband are not published.
+         */
+        double getDeadband(@NonNull WR3223CommandType wr3223CommandType);
+
         void updateStatus(@NonNull ThingStatus status, @NonNull ThingStatusDetail statusDetail, String description);
     }
 
@@ -69,6 +100,8 @@ public class WR3223Controller implements Runnable, Closeable {
             WR3223CommandType.CONTROL_VOLTAGE_SUPPLY_AIR, WR3223CommandType.WARM_WATER_TARGET_TEMPERATURE,
             WR3223CommandType.HEAT_PUMP_OPEN, WR3223CommandType.ADDITIONAL_HEATER_OPEN };
 
+    private static final EnumSet<WR3223CommandType> READABLE_COMMANDS = EnumSet.copyOf(Arrays.asList(READ_COMMANDS));
+
     private static final EnumSet<WR3223CommandType> WRITE_COMMANDS = EnumSet.of(WR3223CommandType.OPERATION_MODE,
             WR3223CommandType.TEMPERATURE_SUPPLY_AIR_TARGET, WR3223CommandType.SPEED_DEVIATION_MAX_LEVEL_1,
             WR3223CommandType.SPEED_DEVIATION_MAX_LEVEL_2, WR3223CommandType.SPEED_DEVIATION_MAX_LEVEL_3,
@@ -89,10 +122,75 @@ public class WR3223Controller implements Runnable, Closeable {
             WR3223CommandType.SUPPORT_FAN_LEVEL_3_EARTH_HEAT_EXCHANGER, WR3223CommandType.WARM_WATER_TARGET_TEMPERATURE,
             WR3223CommandType.HEAT_PUMP_OPEN, WR3223CommandType.ADDITIONAL_HEATER_OPEN);
 
+    /**
+     * Channels of the status command (Ta).
+     */
+    private static final EnumSet<WR3223CommandType> STATUS_CHANNELS = EnumSet.of(WR3223CommandType.MALFUNCTION,
+            WR3223CommandType.HEAT_PUMP_STATUS, WR3223CommandType.ADDITIONAL_HEATER_STATUS);
+
+    /**
+     * Channels of the relais command (RL).
+     */
+    private static final EnumSet<WR3223CommandType> RELAIS_CHANNELS = EnumSet.of(WR3223CommandType.COMPRESSOR,
+            WR3223CommandType.ADDITIONAL_HEATER_RELAIS, WR3223CommandType.PREHEATING_RADIATOR_ACTIVE,
+            WR3223CommandType.BYPASS, WR3223CommandType.BYPASS_RELAY, WR3223CommandType.CONTROL_DEVICE_ACTIVE,
+            WR3223CommandType.EARTH_HEAT_EXCHANGER, WR3223CommandType.MAGNET_VALVE,
+            WR3223CommandType.OPENHAB_INTERFACE_ACTIVE, WR3223CommandType.PREHEATING_RADIATOR,
+            WR3223CommandType.VENTILATION_LEVEL_AVAILABLE, WR3223CommandType.WARM_WATER_POST_HEATER);
+
+    /**
+     * Channels of the error command (ER).
+     */
+    private static final EnumSet<WR3223CommandType> ERROR_CHANNELS = EnumSet.of(
+            WR3223CommandType.ERROR_TEMP_SENSOR_SHORT, WR3223CommandType.ERROR_OFFSET,
+            WR3223CommandType.ERROR_TEMP_SENSOR_INTERUPT, WR3223CommandType.ERROR_HIGH_PRESSURE,
+            WR3223CommandType.ERROR_SYS_RAM, WR3223CommandType.ERROR_SYS_ROM, WR3223CommandType.ERROR_SYS_EE,
+            WR3223CommandType.ERROR_SYS_IO, WR3223CommandType.ERROR_SYS_67_AD, WR3223CommandType.ERROR_SUPPLY_AIR,
+            WR3223CommandType.ERROR_OUTGOING_AIR, WR3223CommandType.ERROR_CONDENSER,
+            WR3223CommandType.ERROR_PREHEATING);
+
+    /**
+     * Number of request intervals without an answer, after which the connection is recycled.
+     */
+    private static final int HALF_OPEN_CYCLES = 3;
+
+    /**
+     * Interval of the keep alive timer in milliseconds.
+     */
+    private static final long KEEP_ALIVE_CHECK_INTERVAL = 1000;
+
+    /**
+     * Number of refresh intervals after which the watchdog aborts a stuck cycle.
+     */
+    private static final int WATCHDOG_CYCLES = 2;
+
     private final Logger logger = LoggerFactory.getLogger(WR3223Controller.class);
 
     private final WR3223Configuration config;
-    private final SerialPortManager serialPortManager;
+    private final Executor scheduler;
+
+    /**
+     * Executes the keep alive timer. The timer only queues the keep alive message, so it never blocks a thread.
+     */
+    private final ScheduledExecutorService timerScheduler;
+
+    @Nullable
+    private ScheduledFuture<?> keepAliveJob;
+
+    /**
+     * Time of the last acknowledged keep alive message as {@link System#nanoTime()}.
+     */
+    private volatile long lastKeepAlive;
+
+    /**
+     * True while a keep alive message of the timer is queued.
+     */
+    private final AtomicBoolean keepAlivePending = new AtomicBoolean();
+
+    /**
+     * Number of cycles, which didn't finish within the refresh interval.
+     */
+    private final AtomicLong cycleOverruns = new AtomicLong();
 
     /**
      * Status of the WR3223
@@ -100,112 +198,463 @@ public class WR3223Controller implements Runnable, Closeable {
     private StatusValueHolder statusHolder = new StatusValueHolder();
 
     /**
-     * Store the value to update
+     * Values to write to the WR3223. Filled by the command thread, written by the polling thread.
+     */
+    private final CoalescingWriteQueue pendingWrites = new CoalescingWriteQueue();
+
+    /**
+     * True if the status (SW) changed since the last write.
      */
-    private Map<WR3223CommandType, Integer> updateMap = new HashMap<WR3223CommandType, Integer>();
+    private volatile boolean statusChanged;
+
+    /**
+     * True if a new value was stored since the last write. Failed writes are only repeated in the next cycle.
+     */
+    private volatile boolean writeRequested;
+
+    /**
+     * State of the control device from the last read of the relais. Values can only be written without control
+     * device.
+     */
+    private volatile boolean controlDeviceActive;
+
+    /**
+     * Only one cycle may run at a time. The communication itself is done by the bus owner of the connector.
+     */
+    private final ReentrantLock cycleLock = new ReentrantLock();
+
+    /**
+     * Channels with a pending refresh command.
+     */
+    private final Set<WR3223CommandType> refreshRequests = EnumSet.noneOf(WR3223CommandType.class);
+
+    /*
+     * Last read values by command, to answer a refresh without reading the value again. The values are only accessed
+     * while holding the cycle lock. The time is reset by the command thread, when a new value is written.
+     */
+    private final double[] cachedValues = new double[WR3223Commands.values().length];
+    private final AtomicLongArray cacheTimes = new AtomicLongArray(WR3223Commands.values().length);
+
+    /**
+     * Publish the values of a refresh, also if they didn't change.
+     */
+    private boolean forcePublish;
+
+    /**
+     * Plans which values are read in a cycle.
+     */
+    private final PollPlanner pollPlanner;
+
+    /**
+     * Filter to publish only changed values.
+     */
+    private final PublishFilter publishFilter;
+
+    /*
+     * Read plan for the commands which don't map to a single channel. The plan is updated with the linked channels.
+     */
+    private volatile boolean readStatus;
+    private volatile boolean readEvuBlockade;
+    private volatile boolean publishRelais;
+    private volatile boolean readErrors;
 
     private ThingHandler thingHandler;
 
     /**
-     * WR3223 Connector
+     * Connection to the WR3223, which is reestablished in the background.
      */
-    @Nullable
-    private AbstractWR3223Connector connector;
+    private final WR3223Connection connection;
 
     /**
-     * Not all controller supports all commands. The binding automatically disable not supported commands.
+     * False until the first connect. All values are read after the first connect, after a reconnect the values are
+     * read with the normal plan.
      */
-    private Set<WR3223Commands> disabledCommands = new HashSet<>();
+    private volatile boolean connectedBefore;
 
-    private String thingId;
+    /**
+     * Not all controller supports all commands. The binding automatically disable not supported commands. The disabled
+     * commands are kept over reconnects, because the supported commands of a controller don't change.
+     */
+    private final Set<WR3223Commands> disabledCommands = Collections
+            .synchronizedSet(EnumSet.noneOf(WR3223Commands.class));
 
-    public WR3223Controller(WR3223Configuration config, SerialPortManager serialPortManager, String thingId,
-            ThingHandler thingHandler) {
+    /**
+     * Create a controller. The owner of the connection calls {@link #connected(AbstractWR3223Connector)} after a
+     * connect.
+     *
+     * @param scheduler executes the cycles. The scheduler of a bus is looked up on every use, because the bus
+     *            replaces it when it's initialized again.
+     * @param timerScheduler executes the keep alive timer, which doesn't block
+     * @param connection connection of a bus or a connection of the {@link ConnectionPool}
+     */
+    public WR3223Controller(WR3223Configuration config, ThingHandler thingHandler, Executor scheduler,
+            ScheduledExecutorService timerScheduler, WR3223Connection connection) {
         this.config = config;
-        this.serialPortManager = serialPortManager;
         this.thingHandler = thingHandler;
-        this.thingId = thingId;
+        this.scheduler = scheduler;
+        this.timerScheduler = timerScheduler;
+        this.connection = connection;
+        this.pollPlanner = new PollPlanner(config.refreshInterval, config.normalRefreshInterval,
+                config.slowRefreshInterval);
+        this.publishFilter = new PublishFilter(config.republishInterval);
+        updateReadPlan();
     }
 
+    /**
+     * Start the controller right away, if the bus is already connected.
+     */
+    public void start() {
+        AbstractWR3223Connector connector = connection.getConnector();
+        if (connector != null) {
+            connected(connector);
+        }
+    }
+
+    /**
+     * Called after a connect. The keep alive message is sent right away, so the WR3223 doesn't wait for the next
+     * cycle.
+     */
     @Override
-    public void run() {
+    public void connected(AbstractWR3223Connector connector) {
+        lastKeepAlive = System.nanoTime() - TimeUnit.SECONDS.toNanos(config.keepAliveInterval);
+        synchronized (this) {
+            if (keepAliveJob == null) {
+                keepAliveJob = timerScheduler.scheduleWithFixedDelay(this::sendKeepAliveIfDue, 0,
+                        KEEP_ALIVE_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (!connectedBefore) {
+            connectedBefore = true;
+            cycleLock.lock();
+            try {
+                requestFullRefresh();
+            } finally {
+                cycleLock.unlock();
+            }
+        }
+        scheduler.execute(this);
+    }
 
-        // Connector if not already connected.
+    /**
+     * An established connection doesn't mean, that the controller answers. The status of the thing is updated by
+     * {@link #publishAnswerStatus()} after the requests to the controller.
+     */
+    @Override
+    public void connectionStatusChanged(ThingStatus status, ThingStatusDetail statusDetail,
+            @Nullable String description) {
+        if (status == ThingStatus.ONLINE) {
+            publishAnswerStatus();
+        } else {
+            thingHandler.updateStatus(status, statusDetail, description);
+        }
+    }
+
+    /**
+     * Update the status of the thing with the answers of the controller: unknown until the controller answered the
+     * first time, offline while the controller doesn't answer and online otherwise. Nothing is updated while not
+     * connected, the status of the connection is published in this case.
+     */
+    public void publishAnswerStatus() {
+        AbstractWR3223Connector connector = connection.getConnector();
         if (connector == null) {
-            initConnection();
+            return;
+        }
+        if (connector.isSilent(config.controllerAddr)) {
+            thingHandler.updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
+                    "The controller with address " + config.controllerAddr + " doesn't answer.");
+        } else if (connector.hasAnswered(config.controllerAddr)) {
+            thingHandler.updateStatus(ThingStatus.ONLINE, ThingStatusDetail.NONE, null);
+        } else {
+            thingHandler.updateStatus(ThingStatus.UNKNOWN, ThingStatusDetail.NONE,
+                    "Waiting for the first answer of the controller.");
         }
+    }
 
-        if (connector != null) {
+    /**
+     * Update the read plan with the currently linked channels. Only the values of linked channels are read from the
+     * WR3223, except the relais which are needed to detect the control device. Must be called when a channel is
+     * linked or unlinked.
+     */
+    public void updateReadPlan() {
+        EnumSet<WR3223CommandType> linked = EnumSet.noneOf(WR3223CommandType.class);
+        for (WR3223CommandType commandType : WR3223CommandType.values()) {
+            if (thingHandler.isLinked(commandType)) {
+                linked.add(commandType);
+            }
+        }
+        readStatus = isAnyLinked(linked, STATUS_CHANNELS);
+        readEvuBlockade = linked.contains(WR3223CommandType.EVU_BLOCKADE);
+        publishRelais = isAnyLinked(linked, RELAIS_CHANNELS);
+        readErrors = isAnyLinked(linked, ERROR_CHANNELS);
+        for (WR3223CommandType commandType : linked) {
+            publishFilter.setDeadband(commandType, thingHandler.getDeadband(commandType));
+        }
+        pollPlanner.setCommands(
+                Arrays.stream(READ_COMMANDS).filter(linked::contains).toArray(WR3223CommandType[]::new),
+                thingHandler::getPollingTier);
+        logger.debug("Read plan updated. {} of {} channels are linked.", linked.size(),
+                WR3223CommandType.values().length);
+    }
+
+    /**
+     * Read all values, including the values of the slow and on demand tier, in the next cycle. All values are
+     * published, also if they didn't change.
+     */
+    private void requestFullRefresh() {
+        pollPlanner.requestFullRefresh();
+        publishFilter.reset();
+    }
+
+    /**
+     * Request the refresh of a channel. The requests are collected until {@link #refreshRequestedChannels()} is
+     * called, so the refresh of many channels results in one transaction.
+     *
+     * @param channelUID
+     * @return true if this is the first request since the last refresh. The caller must schedule
+     *         {@link #refreshRequestedChannels()} in this case.
+     */
+    public boolean requestRefresh(ChannelUID channelUID) {
+        Optional<WR3223CommandType> commandType = WR3223CommandType.getByChannelId(channelUID.getId());
+        if (!commandType.isPresent()) {
+            return false;
+        }
+        synchronized (refreshRequests) {
+            boolean first = refreshRequests.isEmpty();
+            refreshRequests.add(commandType.get());
+            return first;
+        }
+    }
+
+    /**
+     * Publish the values of the requested channels. Values read within the refresh interval are taken from the
+     * cache, all other values are read in one transaction.
+     */
+    public void refreshRequestedChannels() {
+        EnumSet<WR3223CommandType> requested;
+        synchronized (refreshRequests) {
+            requested = EnumSet.copyOf(refreshRequests);
+            refreshRequests.clear();
+        }
+        AbstractWR3223Connector connector = connection.getConnector();
+        if (connector == null) {
+            // The values are published after the connection is established
+            return;
+        }
+        cycleLock.lock();
+        try {
+            EnumSet<WR3223Commands> commands = EnumSet.noneOf(WR3223Commands.class);
+            for (WR3223CommandType commandType : requested) {
+                WR3223Commands command = getReadCommand(commandType);
+                if (command != null) {
+                    commands.add(command);
+                }
+            }
+            Map<WR3223Commands, Double> values = new EnumMap<>(WR3223Commands.class);
+            long minCacheTime = System.currentTimeMillis() - config.refreshInterval * 1000L;
+            for (Iterator<WR3223Commands> it = commands.iterator(); it.hasNext();) {
+                WR3223Commands command = it.next();
+                if (cacheTimes.get(command.ordinal()) >= minCacheTime) {
+                    values.put(command, cachedValues[command.ordinal()]);
+                    it.remove();
+                }
+            }
+            logger.debug("Refresh of {} channels with {} cached and {} read values.", requested.size(),
+                    values.size(), commands.size());
+            if (!commands.isEmpty()) {
+                // A stuck refresh is aborted like a stuck cycle
+                long watchdogDeadline = System.nanoTime()
+                        + WATCHDOG_CYCLES * TimeUnit.SECONDS.toNanos(config.refreshInterval);
+                CompletableFuture<Map<WR3223Commands, Double>> future = connector.submit(RequestPriority.SENSOR_READ,
+                        c -> readValues(c, commands));
+                Map<WR3223Commands, Double> read;
+                try {
+                    read = await(future, watchdogDeadline);
+                } catch (TimeoutException e) {
+                    future.cancel(false);
+                    logger.warn("The refresh was aborted, because it didn't finish within {} refresh intervals.",
+                            WATCHDOG_CYCLES);
+                    return;
+                }
+                for (Map.Entry<WR3223Commands, Double> entry : read.entrySet()) {
+                    cacheValue(entry.getKey(), entry.getValue());
+                }
+                values.putAll(read);
+            }
+
+            // The channels of a group are published together, so each group is published once
+            forcePublish = true;
             try {
+                Map<WR3223Commands, Integer> groups = new EnumMap<>(WR3223Commands.class);
+                for (WR3223CommandType commandType : requested) {
+                    WR3223Commands command = getReadCommand(commandType);
+                    Double value = command != null ? values.get(command) : null;
+                    if (command == null || value == null) {
+                        continue;
+                    }
+                    if (commandType.getWr3223Command() != null) {
+                        publishValue(commandType, value.doubleValue());
+                    } else {
+                        groups.put(command, value.intValue());
+                    }
+                }
+                for (Map.Entry<WR3223Commands, Integer> group : groups.entrySet()) {
+                    publishGroupValue(group.getKey(), group.getValue());
+                }
+            } finally {
+                forcePublish = false;
+            }
+        } catch (IOException e) {
+            connection.connectionLost(connector, e);
+        } finally {
+            cycleLock.unlock();
+        }
+    }
+
+    @Override
+    public void run() {
+        cycleLock.lock();
+        try {
+            runCycle();
+        } finally {
+            cycleLock.unlock();
+        }
+    }
 
-                // Read status values (Ta)
-                if (checkIfCommandIsAvailable(WR3223Commands.Ta)) {
-                    statusHolder.valueOf(connector.read(config.controllerAddr, WR3223Commands.Ta));
-                    thingHandler.publishValueToBoundChannel(WR3223CommandType.MALFUNCTION,
-                            statusHolder.isMalfunction());
-                    thingHandler.publishValueToBoundChannel(WR3223CommandType.HEAT_PUMP_STATUS,
-                            statusHolder.getHeatPumpOnStatus());
-                    thingHandler.publishValueToBoundChannel(WR3223CommandType.ADDITIONAL_HEATER_STATUS,
-                            statusHolder.getAdditionalHeatingOnStatus());
+    /**
+     * Queue the pending values for writing. The write is sent before the queued reads of a running cycle.
+     */
+    public void writePendingValues() {
+        AbstractWR3223Connector connector = connection.getConnector();
+        if (connector != null && !controlDeviceActive && writeRequested) {
+            connector.submit(RequestPriority.WRITE, this::writeUpdates).whenComplete((result, error) -> {
+                if (error != null) {
+                    // Try again with the next cycle
+                    writeRequested = true;
+                    logger.error("Couldn't write the values to WR3223.", error);
+                    if (error instanceof IOException) {
+                        connection.connectionLost(connector, (IOException) error);
+                    }
                 }
+            });
+        }
+    }
+
+    private void runCycle() {
+
+        // Reconnects are done in the background
+        AbstractWR3223Connector connector = connection.getConnector();
+        if (connector != null) {
+
+            // The requests of the cycle must be done before the next cycle. Other controllers on the same connection
+            // with an earlier deadline are served first. A stuck cycle is aborted by the watchdog.
+            long refreshInterval = TimeUnit.SECONDS.toNanos(config.refreshInterval);
+            long cycleStart = System.nanoTime();
+            long deadline = cycleStart + refreshInterval;
+            long watchdogDeadline = cycleStart + WATCHDOG_CYCLES * refreshInterval;
+            List<CompletableFuture<?>> requests = new ArrayList<>();
+            try {
 
-                // EVU Blockade handling (Tf)
-                if (checkIfCommandIsAvailable(WR3223Commands.Tf)) {
-                    EvuBlockadeHandler handler = EvuBlockadeHandler
-                            .valueOf(connector.read(config.controllerAddr, WR3223Commands.Tf));
-                    thingHandler.publishValueToBoundChannel(WR3223CommandType.EVU_BLOCKADE, handler.isBlockade());
+                checkHalfOpen(connector);
+
+                // A silent controller is only probed, so it doesn't hold up the other controllers on the connection
+                if (connector.isSilent(config.controllerAddr)) {
+                    CompletableFuture<@Nullable Integer> relais = readInt(connector, RequestPriority.ALARM_READ,
+                            deadline, WR3223Commands.RL);
+                    requests.add(relais);
+                    groupValueRead(WR3223Commands.RL, await(relais, watchdogDeadline));
+                    publishAnswerStatus();
+                    return;
                 }
 
-                // Read relais
-                RelaisValueDecoder relais = readAndPublishRelaisValues();
+                // Queue the reads of status (Ta), EVU blockade (Tf), relais and errors
+                CompletableFuture<@Nullable Integer> status = readStatus
+                        ? readInt(connector, RequestPriority.ALARM_READ, deadline, WR3223Commands.Ta)
+                        : null;
+                CompletableFuture<@Nullable Integer> evuBlockade = readEvuBlockade
+                        ? readInt(connector, RequestPriority.ALARM_READ, deadline, WR3223Commands.Tf)
+                        : null;
+                CompletableFuture<@Nullable Integer> relais = readInt(connector, RequestPriority.ALARM_READ,
+                        deadline, WR3223Commands.RL);
+                CompletableFuture<@Nullable Integer> errors = readErrors
+                        ? readInt(connector, RequestPriority.ALARM_READ, deadline, WR3223Commands.ER)
+                        : null;
 
-                // Read errors
-                readAndPublishErrorValues();
+                for (CompletableFuture<?> request : Arrays.asList(status, evuBlockade, relais, errors)) {
+                    if (request != null) {
+                        requests.add(request);
+                    }
+                }
 
-                // Write values if no control device connected
-                if (!relais.isControlDeviceActive()) {
-                    if (connector.write(config.controllerAddr, WR3223Commands.SW, statusHolder.getStatusValue())) {
+                // Status values (Ta), EVU blockade handling (Tf), relais and errors
+                if (status != null) {
+                    groupValueRead(WR3223Commands.Ta, await(status, watchdogDeadline));
+                }
+                if (evuBlockade != null) {
+                    groupValueRead(WR3223Commands.Tf, await(evuBlockade, watchdogDeadline));
+                }
+                groupValueRead(WR3223Commands.RL, await(relais, watchdogDeadline));
+                if (errors != null) {
+                    groupValueRead(WR3223Commands.ER, await(errors, watchdogDeadline));
+                }
 
-                        // Commit value updates to WR3223
-                        Iterator<Entry<WR3223CommandType, Integer>> it = updateMap.entrySet().iterator();
-                        while (it.hasNext()) {
-                            Entry<WR3223CommandType, Integer> update = it.next();
-                            if (connector.write(config.controllerAddr, update.getKey().getWr3223Command(),
-                                    String.valueOf(update.getValue()))) {
-                                it.remove();
-                            }
+                // Write the changed status and values if no control device connected. The keep alive message is sent by
+                // the keep alive timer, independent of the refresh interval.
+                if (!controlDeviceActive) {
+                    // Nobody waits for the write, so a broken connection is reported by the completion
+                    CompletableFuture<@Nullable Void> write = connector.submit(RequestPriority.WRITE, deadline,
+                            this::writeUpdates);
+                    write.whenComplete((result, error) -> {
+                        if (error instanceof IOException) {
+                            connection.connectionLost(connector, (IOException) error);
                         }
-                    } else {
-                        logger.error("Couldn't send keep alive message to WR3223.");
-                    }
+                    });
+                    requests.add(write);
                 } else {
                     logger.warn(
                             "The control device is active! Openhab can only control the WR3223, when the control device is removed. (Bedienteil)");
                 }
 
-                // Read and publish other values from WR3223
-                for (WR3223CommandType readCommand : READ_COMMANDS) {
-                    if (checkIfCommandIsAvailable(readCommand.getWr3223Command())) {
-                        if (!updateMap.containsKey(readCommand)) {
-                            readAndPublishValue(readCommand);
-                        } else {
-                            logger.info(
-                                    "Skip reading values for command {} from WR3223, because an updated value must first be sent to WR3223.",
-                                    readCommand.name());
+                // Queue the reads of the other values. New values are written between the reads, because the writes
+                // have a higher priority. Reads which don't fit into the cycle are carried over to the next cycle.
+                List<WR3223CommandType> readCommands = pollPlanner.nextCycle();
+                List<CompletableFuture<@Nullable Double>> values = new ArrayList<>(readCommands.size());
+                for (WR3223CommandType readCommand : readCommands) {
+                    CompletableFuture<@Nullable Double> value = connector.submit(getReadPriority(readCommand),
+                            deadline, c -> readNumberWithinBudget(c, readCommand, deadline));
+                    values.add(value);
+                    requests.add(value);
+                }
+
+                // Publish the values in the order of the reads
+                try {
+                    for (int ii = 0; ii < readCommands.size(); ii++) {
+                        Double value = await(values.get(ii), watchdogDeadline);
+                        WR3223CommandType readCommand = readCommands.get(ii);
+                        if (value != null) {
+                            cacheValue(readCommand.getWr3223Command(), value);
+                            publishValue(readCommand, value.doubleValue());
                         }
                     }
-                }
-            } catch (IOException e) {
-                logger.error("Communication error to WR3223.", e);
-                if (connector != null) {
-                    try {
-                        connector.close();
-                    } catch (IOException e1) {
-                        logger.error("Couldn't close communication to WR3223.", e1);
+                } catch (TimeoutException e) {
+                    // The reads which weren't started are read with the next cycle
+                    for (int ii = 0; ii < readCommands.size(); ii++) {
+                        if (values.get(ii).cancel(false)) {
+                            pollPlanner.carryOver(readCommands.get(ii));
+                        }
                     }
+                    throw e;
                 }
-                connector = null;
-                disabledCommands.clear();
+                countOverrun(System.nanoTime() - deadline);
+                publishAnswerStatus();
+            } catch (TimeoutException e) {
+                for (CompletableFuture<?> request : requests) {
+                    request.cancel(false);
+                }
+                logger.warn("The cycle was aborted, because it didn't finish within {} refresh intervals.",
+                        WATCHDOG_CYCLES);
+                countOverrun(System.nanoTime() - deadline);
+            } catch (IOException e) {
+                connection.connectionLost(connector, e);
             }
 
         }
@@ -213,23 +662,106 @@ public class WR3223Controller implements Runnable, Closeable {
 
     @Override
     public void close() {
-        logger.info("Controller closed.");
-        if (connector != null) {
-            try {
-                connector.close();
-            } catch (IOException e1) {
-                logger.error("Couldn't close communication to WR3223.", e1);
+        synchronized (this) {
+            ScheduledFuture<?> keepAliveJob = this.keepAliveJob;
+            if (keepAliveJob != null) {
+                keepAliveJob.cancel(false);
+                this.keepAliveJob = null;
             }
         }
-        connector = null;
-        disabledCommands.clear();
+        logger.info("Controller closed.");
+    }
+
+    /**
+     * A connection without answers over several request intervals is probably half open.
+     *
+     * @throws IOException if the connection is probably half open.
+     */
+    private void checkHalfOpen(AbstractWR3223Connector connector) throws IOException {
+        long interval = getHalfOpenInterval(config.refreshInterval, config.keepAliveInterval, !controlDeviceActive);
+        if (isHalfOpen(connector.getMillisSinceLastAnswer(), interval)) {
+            throw new IOException("No answer from WR3223 within " + HALF_OPEN_CYCLES * interval
+                    + " seconds, the connection is probably half open.");
+        }
+    }
+
+    /**
+     * The keep alive messages are answered too, so the shorter of the keep alive and the refresh interval is used
+     * while keep alive messages are sent. With an active control device, only the refresh cycle asks the controller.
+     *
+     * @param refreshInterval the refresh interval in seconds.
+     * @param keepAliveInterval the keep alive interval in seconds.
+     * @param keepAliveSent true, if keep alive messages are sent.
+     * @return the interval in seconds, in which an answer is expected.
+     */
+    static long getHalfOpenInterval(long refreshInterval, long keepAliveInterval, boolean keepAliveSent) {
+        return keepAliveSent ? Math.min(refreshInterval, keepAliveInterval) : refreshInterval;
+    }
+
+    /**
+     * @param millisSinceLastAnswer the time since the last answer in milliseconds.
+     * @param interval the interval in seconds, in which an answer is expected.
+     * @return true, if there was no answer within several intervals.
+     */
+    static boolean isHalfOpen(long millisSinceLastAnswer, long interval) {
+        return millisSinceLastAnswer > HALF_OPEN_CYCLES * interval * 1000L;
+    }
+
+    /**
+     * @return the number of cycles, which didn't finish within the refresh interval.
+     */
+    public long getCycleOverruns() {
+        return cycleOverruns.get();
+    }
+
+    /**
+     * Queue the keep alive message, if it wasn't acknowledged within the keep alive interval. The message has the
+     * highest priority, so it's sent after the running transaction, independent of the state of the cycle. The keep
+     * alive timer only sends the keep alive message, so a long refresh interval leaves the bus quiet.
+     */
+    private void sendKeepAliveIfDue() {
+        AbstractWR3223Connector connector = connection.getConnector();
+        if (connector == null || controlDeviceActive
+                || System.nanoTime() - lastKeepAlive < TimeUnit.SECONDS.toNanos(config.keepAliveInterval)
+                || !keepAlivePending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            checkHalfOpen(connector);
+        } catch (IOException e) {
+            keepAlivePending.set(false);
+            connection.connectionLost(connector, e);
+            return;
+        }
+        connector.submit(RequestPriority.KEEP_ALIVE, this::writeStatus).whenComplete((written, error) -> {
+            keepAlivePending.set(false);
+            if (error instanceof IOException) {
+                connection.connectionLost(connector, (IOException) error);
+                return;
+            } else if (error != null || !written) {
+                logger.error("Couldn't send keep alive message to WR3223.");
+            }
+            publishAnswerStatus();
+        });
     }
 
     public void handleCommand(ChannelUID channelUID, Command command) {
+        if (updateValue(channelUID, command)) {
+            writeRequested = true;
+            writePendingValues();
+        }
+    }
+
+    /**
+     * Store the value of the command for writing.
+     *
+     * @return true if a value must be written.
+     */
+    private boolean updateValue(ChannelUID channelUID, Command command) {
         Optional<WR3223CommandType> commandType = WR3223CommandType.getByChannelId(channelUID.getId());
         if (!commandType.isPresent()) {
             logger.info("Skip write values for channel UID {}, because channel is unknown in WR3223.", channelUID);
-            return;
+            return false;
         }
 
         // Special commands
@@ -279,133 +811,428 @@ public class WR3223Controller implements Runnable, Closeable {
 
             if (!WRITE_COMMANDS.contains(commandType.get())) {
                 logger.info("Skip write values for channel UID {}, because channel is not writable.", channelUID);
-                return;
+                return false;
             }
 
-            Integer value = 0;
-            if (command instanceof Number) {
+            int value = 0;
+            Unit<?> unit = commandType.get().getValueKind().getUnit();
+            if (command instanceof QuantityType && unit != null) {
+                QuantityType<?> quantity = ((QuantityType<?>) command).toUnit(unit);
+                if (quantity == null) {
+                    logger.warn("WR3223 value {} of channel UID {} can't be converted to {}.", command, channelUID,
+                            unit);
+                    return false;
+                }
+                value = quantity.intValue();
+            } else if (command instanceof Number) {
                 value = ((Number) command).intValue();
             } else if (command instanceof OnOffType) {
                 value = ((OnOffType) command) == OnOffType.ON ? 1 : 0;
             } else if (command instanceof OpenClosedType) {
                 value = ((OpenClosedType) command) == OpenClosedType.CLOSED ? 1 : 0;
-            } else if (command instanceof QuantityType) {
-                value = ((QuantityType) command).intValue();
-                logger.warn("Command type {} not supported for channel UID {}.", command.toFullString(), channelUID);
-                return;
+            } else {
+                logger.debug("Command type {} not supported for channel UID {}.", command.toFullString(), channelUID);
+                return false;
             }
 
             // Store the value update for the next communication with wr3223
-            updateMap.put(commandType.get(), value);
-        }
-    }
-
-    private void initConnection() {
-        ConnectResult result;
-        if (config.host != null) {
-            TcpWR3223Connector tcpConnector = new TcpWR3223Connector();
-            result = tcpConnector.connect(config.host, config.port);
-            connector = tcpConnector;
-            logger.info("Connected to WR3223 over tcp to host {}:{}.", config.host, config.port);
-        } else if (config.serialPort != null) {
-            SerialWR3223Connector serialConnector = new SerialWR3223Connector();
-            result = serialConnector.connect(serialPortManager, thingId, config.serialPort, 9600);
-            connector = serialConnector;
-            logger.info("Connected to WR3223 over serial port {}.", config.serialPort);
-        } else {
-            result = new ConnectResult(ThingStatus.UNINITIALIZED, ThingStatusDetail.OFFLINE.CONFIGURATION_ERROR,
-                    "IP or serial connection must be configured.");
-        }
-        thingHandler.updateStatus(result.getStatus(), result.getStatusDetail(), result.getDescription());
-        if (result.getStatus() != ThingStatus.ONLINE) {
-            connector = null;
+            pendingWrites.put(commandType.get(), value);
+            cacheTimes.set(commandType.get().getWr3223Command().ordinal(), 0);
+            return true;
         }
+
+        // The status is sent with the next keep alive message (SW)
+        statusChanged = true;
+        return true;
     }
 
     /**
-     * Check if a command is available.
+     * Read the value of a command, if the command is available. The availability is checked with the same read, so
+     * each command is only read once per cycle. Not supported commands are disabled after the first read. Must be
+     * called within a transaction.
      *
+     * @param connector
      * @param command
-     * @return
-     * @throws IOException
+     * @return the future with the read frame or null if the command is not supported by the controller or no valid
+     *         answer was received. The frame is only valid until the next read. The future fails if the connection is
+     *         broken.
      */
-    private boolean checkIfCommandIsAvailable(WR3223Commands command) throws IOException {
+    private CompletableFuture<@Nullable WR3223Frame> readIfAvailable(AbstractWR3223Connector connector,
+            WR3223Commands command) {
         if (disabledCommands.contains(command)) {
-            return false;
+            return CompletableFuture.completedFuture(null);
         }
-        String value = connector.read(config.controllerAddr, command);
-        if (value == null || value.contains("???")) {
-            disabledCommands.add(command);
-            logger.warn("Command {} is not supported by the controller.", command);
-            return false;
+        return connector.readFrame(config.controllerAddr, command).handle((value, error) -> {
+            if (error != null) {
+                if (unwrap(error) instanceof FrameException) {
+                    // Only this value is lost, it's read again with the next cycle
+                    return null;
+                }
+                throw propagate(error);
+            }
+            if (value.isUnsupported()) {
+                disabledCommands.add(command);
+                logger.warn("Command {} is not supported by the controller.", command);
+                return null;
+            }
+            return value;
+        });
+    }
+
+    /**
+     * Queue the read of an integer value.
+     *
+     * @return the future with the value or null if the command isn't supported or the value isn't a number.
+     */
+    private CompletableFuture<@Nullable Integer> readInt(AbstractWR3223Connector connector,
+            RequestPriority priority, long deadline, WR3223Commands command) {
+        return connector.submit(priority, deadline, c -> readIfAvailable(c, command).thenApply(frame -> {
+            if (frame == null) {
+                return null;
+            }
+            try {
+                return frame.intValue();
+            } catch (NumberFormatException e) {
+                logger.error("Value {} of command {} is not a number.", frame, command);
+                return null;
+            }
+        }));
+    }
+
+    /**
+     * Read the value of the command type, if the read fits into the remaining time of the cycle. Otherwise the read is
+     * carried over to the next cycle. Must be called within a transaction.
+     *
+     * @param deadline end of the cycle as {@link System#nanoTime()}
+     * @return the future with the value or null if the value wasn't read or isn't a number.
+     */
+    private CompletableFuture<@Nullable Double> readNumberWithinBudget(AbstractWR3223Connector connector,
+            WR3223CommandType wr3223CommandType, long deadline) {
+        long responseTimeout = TimeUnit.MILLISECONDS.toNanos(connector.getResponseTimeout(config.controllerAddr));
+        if (System.nanoTime() + responseTimeout - deadline > 0) {
+            logger.debug("Read of command {} is carried over to the next cycle.", wr3223CommandType.name());
+            pollPlanner.carryOver(wr3223CommandType);
+            return CompletableFuture.completedFuture(null);
+        }
+        return readNumberIfNotPending(connector, wr3223CommandType);
+    }
+
+    /**
+     * Read the value of the command type, if no new value must be written first. Must be called within a
+     * transaction.
+     *
+     * @return the future with the value or null if the value wasn't read or isn't a number.
+     */
+    private CompletableFuture<@Nullable Double> readNumberIfNotPending(AbstractWR3223Connector connector,
+            WR3223CommandType wr3223CommandType) {
+        if (pendingWrites.isPending(wr3223CommandType)) {
+            logger.info("Skip reading values for command {} from WR3223, "
+                    + "because an updated value must first be sent to WR3223.", wr3223CommandType.name());
+            return CompletableFuture.completedFuture(null);
+        }
+        return readIfAvailable(connector, wr3223CommandType.getWr3223Command()).thenApply(value -> {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return wr3223CommandType.getValueKind().isDecimal() ? value.doubleValue() : value.intValue();
+            } catch (NumberFormatException e) {
+                logger.error("Can't publish value {} of command {}, because it's not a number.", value,
+                        wr3223CommandType.name());
+                return null;
+            }
+        });
+    }
+
+    /**
+     * The parameters have the lowest priority, they only change by the user. The polling tier of the channel is used,
+     * so a channel configured for the slow tier is read like a parameter.
+     */
+    private RequestPriority getReadPriority(WR3223CommandType wr3223CommandType) {
+        return thingHandler.getPollingTier(wr3223CommandType) == PollingTier.SLOW ? RequestPriority.PARAMETER_READ
+                : RequestPriority.SENSOR_READ;
+    }
+
+    /**
+     * Wait for the result of a transaction of a cycle or a refresh.
+     *
+     * @param future
+     * @param deadline time as {@link System#nanoTime()} until the watchdog waits
+     * @return the result of the transaction.
+     * @throws IOException if the transaction failed.
+     * @throws TimeoutException if the transaction isn't done at the deadline.
+     */
+    private static <T> T await(CompletableFuture<T> future, long deadline) throws IOException, TimeoutException {
+        try {
+            return future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Waiting for WR3223 was interrupted.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Transaction failed.", cause);
+        }
+    }
+
+    /**
+     * @return the cause of an exception, which was wrapped by a completion stage.
+     */
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error.getCause();
+        return error instanceof CompletionException && cause != null ? cause : error;
+    }
+
+    /**
+     * Pass an exception on to the next completion stage.
+     */
+    private static CompletionException propagate(Throwable error) {
+        return error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+    }
+
+    /**
+     * Count the cycle as overrun, if it finished after the refresh interval.
+     *
+     * @param lateness time in nanoseconds since the end of the refresh interval, negative if the cycle was in time
+     */
+    private void countOverrun(long lateness) {
+        if (lateness > 0) {
+            long overruns = cycleOverruns.incrementAndGet();
+            logger.debug("Cycle finished {} ms after the refresh interval ({} overruns so far).",
+                    TimeUnit.NANOSECONDS.toMillis(lateness), overruns);
+        }
+    }
+
+    /**
+     * Write the changed status and the pending values. Must be called within a transaction.
+     *
+     * @return the future, which is completed after the writes.
+     */
+    private CompletableFuture<@Nullable Void> writeUpdates(AbstractWR3223Connector connector) {
+        writeRequested = false;
+        CompletableFuture<Boolean> status = statusChanged ? writeStatus(connector)
+                : CompletableFuture.completedFuture(true);
+        return status.thenCompose(written -> {
+            if (!written) {
+                logger.error("Couldn't send the status to WR3223.");
+                return CompletableFuture.completedFuture(null);
+            }
+            return writeQueuedValues(connector, 0);
+        });
+    }
+
+    /**
+     * Send the status (SW), which is also the keep alive message. Must be called within a transaction.
+     *
+     * @return the future with true if the WR3223 acknowledged the status.
+     */
+    private CompletableFuture<Boolean> writeStatus(AbstractWR3223Connector connector) {
+        statusChanged = false;
+        return connector.write(config.controllerAddr, WR3223Commands.SW, statusHolder.getStatusValue())
+                .whenComplete((written, error) -> {
+                    if (error == null && written) {
+                        lastKeepAlive = System.nanoTime();
+                    } else {
+                        statusChanged = true;
+                    }
+                });
+    }
+
+    /**
+     * Write the pending values one after the other. A value which couldn't be written stays pending for the next
+     * cycle. Must be called within a transaction.
+     *
+     * @param fromOrdinal the ordinal of the first command type to write
+     * @return the future, which is completed after the writes.
+     */
+    private CompletableFuture<@Nullable Void> writeQueuedValues(AbstractWR3223Connector connector, int fromOrdinal) {
+        WR3223CommandType type = pendingWrites.nextPending(fromOrdinal);
+        if (type == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        int value = pendingWrites.take(type);
+        return connector.write(config.controllerAddr, type.getWr3223Command(), String.valueOf(value))
+                .handle((written, error) -> {
+                    if (error != null || !written) {
+                        pendingWrites.retry(type);
+                    }
+                    if (error != null) {
+                        throw propagate(error);
+                    }
+                    return type;
+                }).thenCompose(written -> writeQueuedValues(connector, written.ordinal() + 1));
+    }
+
+    /**
+     * @return the command to read the value of the channel or null if the channel can't be read.
+     */
+    private static @Nullable WR3223Commands getReadCommand(WR3223CommandType commandType) {
+        if (STATUS_CHANNELS.contains(commandType)) {
+            return WR3223Commands.Ta;
+        } else if (commandType == WR3223CommandType.EVU_BLOCKADE) {
+            return WR3223Commands.Tf;
+        } else if (RELAIS_CHANNELS.contains(commandType)) {
+            return WR3223Commands.RL;
+        } else if (ERROR_CHANNELS.contains(commandType)) {
+            return WR3223Commands.ER;
+        } else if (READABLE_COMMANDS.contains(commandType)) {
+            return commandType.getWr3223Command();
+        }
+        return null;
+    }
+
+    /**
+     * Read the values of the commands one after the other. Must be called within a transaction.
+     *
+     * @return the future with the values of the supported commands.
+     */
+    private CompletableFuture<Map<WR3223Commands, Double>> readValues(AbstractWR3223Connector connector,
+            Set<WR3223Commands> commands) {
+        CompletableFuture<Map<WR3223Commands, Double>> result = CompletableFuture
+                .completedFuture(new EnumMap<>(WR3223Commands.class));
+        for (WR3223Commands command : commands) {
+            result = result.thenCompose(values -> readIfAvailable(connector, command).thenApply(frame -> {
+                if (frame != null) {
+                    try {
+                        values.put(command, frame.doubleValue());
+                    } catch (NumberFormatException e) {
+                        logger.error("Value {} of command {} is not a number.", frame, command);
+                    }
+                }
+                return values;
+            }));
+        }
+        return result;
+    }
+
+    /**
+     * Keep the read value for the refresh of a channel.
+     */
+    private void cacheValue(WR3223Commands command, double value) {
+        cachedValues[command.ordinal()] = value;
+        cacheTimes.set(command.ordinal(), System.currentTimeMillis());
+    }
+
+    /**
+     * Keep and publish the value of a command, which was read from the WR3223 and contains the values of several
+     * channels.
+     *
+     * @param command Ta, Tf, RL or ER
+     * @param value the read value or null if the command wasn't read
+     */
+    private void groupValueRead(WR3223Commands command, @Nullable Integer value) {
+        if (value != null) {
+            cacheValue(command, value);
+        }
+        publishGroupValue(command, value);
+    }
+
+    /**
+     * Decode and publish the value of a command, which contains the values of several channels.
+     *
+     * @param command Ta, Tf, RL or ER
+     * @param value the value or null if the command wasn't read
+     */
+    private void publishGroupValue(WR3223Commands command, @Nullable Integer value) {
+        if (value == null) {
+            return;
+        }
+        switch (command) {
+            case Ta:
+                statusHolder.valueOf(value);
+                publishValue(WR3223CommandType.MALFUNCTION, statusHolder.isMalfunction());
+                publishValue(WR3223CommandType.HEAT_PUMP_STATUS, statusHolder.getHeatPumpOnStatus());
+                publishValue(WR3223CommandType.ADDITIONAL_HEATER_STATUS, statusHolder.getAdditionalHeatingOnStatus());
+                break;
+            case Tf:
+                EvuBlockadeHandler handler = EvuBlockadeHandler.valueOf(value);
+                publishValue(WR3223CommandType.EVU_BLOCKADE, handler.isBlockade());
+                break;
+            case RL:
+                publishRelaisValues(RelaisValueDecoder.valueOf(value));
+                break;
+            case ER:
+                publishErrorValues(ErrorValueDecoder.valueOf(value));
+                break;
+            default:
+                logger.error("Command {} has no group of channels.", command);
+        }
+    }
+
+    private static boolean isAnyLinked(Set<WR3223CommandType> linked, Set<WR3223CommandType> channels) {
+        for (WR3223CommandType channel : channels) {
+            if (linked.contains(channel)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Publish the relais values and keep the state of the control device.
+     *
+     * @param relais
+     */
+    private void publishRelaisValues(RelaisValueDecoder relais) {
+        controlDeviceActive = relais.isControlDeviceActive();
+        if (!publishRelais) {
+            return;
+        }
+        publishValue(WR3223CommandType.COMPRESSOR, relais.isCompressor());
+        publishValue(WR3223CommandType.ADDITIONAL_HEATER_RELAIS, relais.isAdditionalHeater());
+        publishValue(WR3223CommandType.PREHEATING_RADIATOR_ACTIVE, relais.isPreHeaterRadiatorActive());
+        publishValue(WR3223CommandType.BYPASS, !relais.isBypass());
+        publishValue(WR3223CommandType.BYPASS_RELAY, relais.isBypassRelay());
+        publishValue(WR3223CommandType.CONTROL_DEVICE_ACTIVE, relais.isControlDeviceActive());
+        publishValue(WR3223CommandType.EARTH_HEAT_EXCHANGER, relais.isEarthHeatExchanger());
+        publishValue(WR3223CommandType.MAGNET_VALVE, relais.isMagnetValve());
+        publishValue(WR3223CommandType.OPENHAB_INTERFACE_ACTIVE, relais.isOpenhabInterfaceActive());
+        publishValue(WR3223CommandType.PREHEATING_RADIATOR, relais.isPreheatingRadiator());
+        publishValue(WR3223CommandType.VENTILATION_LEVEL_AVAILABLE, relais.isVentilationLevelAvailable());
+        publishValue(WR3223CommandType.WARM_WATER_POST_HEATER, relais.isWarmWaterPostHeater());
+    }
+
+    /**
+     * @param errors
+     */
+    private void publishErrorValues(ErrorValueDecoder errors) {
+        publishValue(WR3223CommandType.ERROR_TEMP_SENSOR_SHORT, errors.isError_temp_sensor_short());
+        publishValue(WR3223CommandType.ERROR_OFFSET, errors.isError_offset());
+        publishValue(WR3223CommandType.ERROR_TEMP_SENSOR_INTERUPT, errors.isError_temp_sensor_interupt());
+        publishValue(WR3223CommandType.ERROR_HIGH_PRESSURE, errors.isError_high_pressure());
+        publishValue(WR3223CommandType.ERROR_SYS_RAM, errors.isError_sys_ram());
+        publishValue(WR3223CommandType.ERROR_SYS_ROM, errors.isError_sys_rom());
+        publishValue(WR3223CommandType.ERROR_SYS_EE, errors.isError_sys_ee());
+        publishValue(WR3223CommandType.ERROR_SYS_IO, errors.isError_sys_io());
+        publishValue(WR3223CommandType.ERROR_SYS_67_AD, errors.isError_sys_67_ad());
+        publishValue(WR3223CommandType.ERROR_SUPPLY_AIR, errors.isError_supply_air());
+        publishValue(WR3223CommandType.ERROR_OUTGOING_AIR, errors.isError_outgoing_air());
+        publishValue(WR3223CommandType.ERROR_CONDENSER, errors.isError_condenser());
+        publishValue(WR3223CommandType.ERROR_PREHEATING, errors.isError_preheating());
+    }
+
+    /**
+     * Publish the boolean value to the channel, if the value changed.
+     *
+     * @param wr3223CommandType
+     * @param value
+     */
+    private void publishValue(WR3223CommandType wr3223CommandType, boolean value) {
+        if (publishFilter.shouldPublish(wr3223CommandType, value) || forcePublish) {
+            thingHandler.publishValueToBoundChannel(wr3223CommandType, value);
         }
-        return true;
     }
 
     /**
-     * @return
-     * @throws IOException
-     */
-    private RelaisValueDecoder readAndPublishRelaisValues() throws IOException {
-        RelaisValueDecoder relais = RelaisValueDecoder
-                .valueOf(connector.read(config.controllerAddr, WR3223Commands.RL));
-        thingHandler.publishValueToBoundChannel(WR3223CommandType.COMPRESSOR, relais.isCompressor());
-        thingHandler.publishValueToBoundChannel(WR3223CommandType.ADDITIONAL_HEATER_RELAIS,
-                relais.isAdditionalHeater());
-        thingHandler.publishValueToBoundChannel(WR3223CommandType.PREHEATING_RADIATOR_ACTIVE,
-                relais.isPreHeaterRadiatorActive());
-        thingHandler.publishValueToBoundChannel(WR3223CommandType.BYPASS, !relais.isBypass());
-        thingHandler.publishValueToBoundChannel(WR3223CommandType.BYPASS_RELAY, relais.isBypassRelay());
-        thingHandler.publishValueToBoundChannel(WR3223CommandType.CONTROL_DEVICE_ACTIVE,
-                relais.isControlDeviceActive());
-        thingHandler.publishValueToBoundChannel(WR3223CommandType.EARTH_HEAT_EXCHANGER, relais.isEarthHeatExchanger());
-        thingHandler.publishValueToBoundChannel(WR3223CommandType.MAGNET_VALVE, relais.isMagnetValve());
-        thingHandler.publishValueToBoundChannel(WR3223CommandType.OPENHAB_INTERFACE_ACTIVE,
-                relais.isOpenhabInterfaceActive());
-        thingHandler.publishValueToBoundChannel(WR3223CommandType.PREHEATING_RADIATOR, relais.isPreheatingRadiator());
-        thingHandler.publishValueToBoundChannel(WR3223CommandType.VENTILATION_LEVEL_AVAILABLE,
-                relais.isVentilationLevelAvailable());
-        thingHandler.publishValueToBoundChannel(WR3223CommandType.WARM_WATER_POST_HEATER,
-                relais.isWarmWaterPostHeater());
-        return relais;
-    }
-
-    /**
-     * @throws IOException
-     */
-    private void readAndPublishErrorValues() throws IOException {
-        if (checkIfCommandIsAvailable(WR3223Commands.ER)) {
-            ErrorValueDecoder errors = ErrorValueDecoder
-                    .valueOf(connector.read(config.controllerAddr, WR3223Commands.ER));
-            thingHandler.publishValueToBoundChannel(WR3223CommandType.ERROR_TEMP_SENSOR_SHORT,
-                    errors.isError_temp_sensor_short());
-            thingHandler.publishValueToBoundChannel(WR3223CommandType.ERROR_OFFSET, errors.isError_offset());
-            thingHandler.publishValueToBoundChannel(WR3223CommandType.ERROR_TEMP_SENSOR_INTERUPT,
-                    errors.isError_temp_sensor_interupt());
-            thingHandler.publishValueToBoundChannel(WR3223CommandType.ERROR_HIGH_PRESSURE,
-                    errors.isError_high_pressure());
-            thingHandler.publishValueToBoundChannel(WR3223CommandType.ERROR_SYS_RAM, errors.isError_sys_ram());
-            thingHandler.publishValueToBoundChannel(WR3223CommandType.ERROR_SYS_ROM, errors.isError_sys_rom());
-            thingHandler.publishValueToBoundChannel(WR3223CommandType.ERROR_SYS_EE, errors.isError_sys_ee());
-            thingHandler.publishValueToBoundChannel(WR3223CommandType.ERROR_SYS_IO, errors.isError_sys_io());
-            thingHandler.publishValueToBoundChannel(WR3223CommandType.ERROR_SYS_67_AD, errors.isError_sys_67_ad());
-            thingHandler.publishValueToBoundChannel(WR3223CommandType.ERROR_SUPPLY_AIR, errors.isError_supply_air());
-            thingHandler.publishValueToBoundChannel(WR3223CommandType.ERROR_OUTGOING_AIR,
-                    errors.isError_outgoing_air());
-            thingHandler.publishValueToBoundChannel(WR3223CommandType.ERROR_CONDENSER, errors.isError_condenser());
-            thingHandler.publishValueToBoundChannel(WR3223CommandType.ERROR_PREHEATING, errors.isError_preheating());
-        }
-    }
-
-    /**
-     * Read value of given command and publish it to the bus.
+     * Publish the numeric value to the channel, if the value changed.
      *
      * @param wr3223CommandType
-     * @throws IOException
+     * @param value
      */
-    private void readAndPublishValue(WR3223CommandType wr3223CommandType) throws IOException {
-        if (thingHandler.isLinked(wr3223CommandType)) {
-            String value = connector.read(config.controllerAddr, wr3223CommandType.getWr3223Command());
+    private void publishValue(WR3223CommandType wr3223CommandType, double value) {
+        if (publishFilter.shouldPublish(wr3223CommandType, value) || forcePublish) {
             thingHandler.publishValueToBoundChannel(wr3223CommandType, value);
         }
     }
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.wr3223.internal.simulator.WR3223Simulator;
+
+/**
+ * Requests to the {@link WR3223Simulator} over a transport. The tests of the transports only connect the connector.
+ *
+ * @author Michael Fraefel
+ *
+ */
+@NonNullByDefault
+public abstract class AbstractConnectorTest {
+
+    private static final int ADDR = 1;
+
+    private static final long WAIT_SECONDS = 10;
+
+    private @Nullable WR3223Simulator simulator;
+    private @Nullable AbstractWR3223Connector connector;
+
+    /**
+     * Connect a new connector to the simulator. The response timeout limits are set before the connect.
+     *
+     * @return the connected connector.
+     */
+    protected abstract AbstractWR3223Connector connect(WR3223Simulator simulator) throws IOException;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        WR3223Simulator simulator = new WR3223Simulator(42);
+        simulator.setValue(ADDR, WR3223Commands.T1, "21.5");
+        simulator.setUnsupported(ADDR, WR3223Commands.T3);
+        this.simulator = simulator;
+        connector = connect(simulator);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        AbstractWR3223Connector connector = this.connector;
+        if (connector != null) {
+            connector.close();
+        }
+        WR3223Simulator simulator = this.simulator;
+        if (simulator != null) {
+            simulator.close();
+        }
+    }
+
+    @Test
+    public void readAnswersValue() throws Exception {
+        assertEquals("21.5", read(WR3223Commands.T1));
+        assertEquals(1, getConnector().getOutcomeCount(FrameOutcome.OK));
+    }
+
+    @Test
+    public void readOfUnsupportedCommandAnswersQuestionMarks() throws Exception {
+        WR3223Frame frame = await(getConnector().submit(RequestPriority.SENSOR_READ,
+                c -> c.readFrame(ADDR, WR3223Commands.T3)));
+        assertTrue(frame.isUnsupported());
+        assertEquals(WR3223Simulator.UNSUPPORTED, read(WR3223Commands.T3));
+        // The next request isn't disturbed by the answer
+        assertEquals("21.5", read(WR3223Commands.T1));
+    }
+
+    @Test
+    public void writeIsAcknowledged() throws Exception {
+        assertTrue(write(WR3223Commands.SW, "3"));
+        assertEquals("3", getSimulator().getValue(ADDR, WR3223Commands.SW));
+    }
+
+    @Test
+    public void writeOfUnsupportedCommandIsRejected() throws Exception {
+        assertFalse(write(WR3223Commands.T3, "1"));
+        assertEquals("21.5", read(WR3223Commands.T1));
+    }
+
+    @Test
+    public void droppedAnswerIsRequestedAgain() throws Exception {
+        getSimulator().dropNextRequests(2);
+        assertEquals("21.5", read(WR3223Commands.T1));
+        assertEquals(1, getConnector().getOutcomeCount(FrameOutcome.RETRIED));
+        assertEquals(2, getConnector().getOutcomeCount(FrameOutcome.TIMEOUT));
+    }
+
+    @Test
+    public void readFailsAfterThreeDroppedAnswers() throws Exception {
+        getSimulator().dropNextRequests(3);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> read(WR3223Commands.T1));
+        assertTrue(e.getCause() instanceof FrameException);
+        assertEquals(FrameOutcome.TIMEOUT, ((FrameException) e.getCause()).getOutcome());
+        assertEquals(1, getConnector().getOutcomeCount(FrameOutcome.FAILED));
+        // One failed request doesn't break the connection
+        assertEquals("21.5", read(WR3223Commands.T1));
+    }
+
+    @Test
+    public void droppedWriteIsNotRepeated() throws Exception {
+        getSimulator().dropNextRequests(1);
+        assertFalse(write(WR3223Commands.SW, "3"));
+        assertEquals(1, getSimulator().getWriteCount());
+    }
+
+    @Test
+    public void noiseInFrontOfTheAnswersIsSkipped() throws Exception {
+        getSimulator().setNoiseProbability(1);
+        for (int ii = 0; ii < 20; ii++) {
+            assertEquals("21.5", read(WR3223Commands.T1));
+        }
+        assertEquals(20, getConnector().getOutcomeCount(FrameOutcome.OK));
+        assertTrue(getConnector().getOutcomeCount(FrameOutcome.RESYNC) > 0);
+    }
+
+    @Test
+    public void queuedReadsSurviveNoiseAndDroppedAnswers() throws Exception {
+        WR3223Simulator simulator = getSimulator();
+        simulator.setNoiseProbability(0.2);
+        simulator.setDropProbability(0.1);
+        List<CompletableFuture<String>> reads = new ArrayList<>();
+        for (int ii = 0; ii < 50; ii++) {
+            reads.add(getConnector().readAsync(ADDR, WR3223Commands.T1, RequestPriority.SENSOR_READ));
+        }
+        for (CompletableFuture<String> read : reads) {
+            assertEquals("21.5", await(read));
+        }
+        assertTrue(simulator.getDroppedCount() > 0);
+        assertEquals(simulator.getDroppedCount(), getConnector().getOutcomeCount(FrameOutcome.TIMEOUT));
+        assertEquals(0, getConnector().getOutcomeCount(FrameOutcome.FAILED));
+    }
+
+    private String read(WR3223Commands command) throws Exception {
+        return await(getConnector().readAsync(ADDR, command, RequestPriority.SENSOR_READ));
+    }
+
+    private boolean write(WR3223Commands command, String value) throws Exception {
+        return await(getConnector().writeAsync(ADDR, command, value));
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        return future.get(WAIT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private WR3223Simulator getSimulator() {
+        WR3223Simulator simulator = this.simulator;
+        assertNotNull(simulator);
+        return simulator;
+    }
+
+    private AbstractWR3223Connector getConnector() {
+        AbstractWR3223Connector connector = this.connector;
+        assertNotNull(connector);
+        return connector;
+    }
+}
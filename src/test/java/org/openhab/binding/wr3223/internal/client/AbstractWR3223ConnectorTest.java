@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.openhab.binding.wr3223.internal.client.WR3223Frame.*;
+import static org.openhab.binding.wr3223.internal.client.WR3223FrameParserTest.*;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Receive path of the {@link AbstractWR3223Connector}: the answers are fed into the connector like a transport does.
+ *
+ * @author Michael Fraefel
+ *
+ */
+@NonNullByDefault
+public class AbstractWR3223ConnectorTest {
+
+    private static final int ADDR = 1;
+
+    private static final long WAIT_SECONDS = 10;
+
+    /**
+     * Connector which records the sent requests and receives the data of the test.
+     */
+    private static class ScriptedConnector extends AbstractWR3223Connector {
+
+        private final BlockingQueue<byte[]> sent = new LinkedBlockingQueue<>();
+
+        ScriptedConnector(int responseTimeout) {
+            setResponseTimeoutLimits(responseTimeout, responseTimeout);
+            connect(responseTimeout, Runnable::run);
+        }
+
+        @Override
+        protected void send(byte[] message, int length) throws IOException {
+            byte[] request = new byte[length];
+            System.arraycopy(message, 0, request, 0, length);
+            sent.add(request);
+        }
+
+        void receive(byte... data) {
+            received(data, 0, data.length);
+        }
+
+        byte @Nullable [] takeSent() throws InterruptedException {
+            return sent.poll(WAIT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private final ScriptedConnector connector = new ScriptedConnector(5000);
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        connector.close();
+    }
+
+    @Test
+    public void readSendsRequest() throws Exception {
+        connector.readAsync(ADDR, WR3223Commands.T1, RequestPriority.SENSOR_READ);
+        byte[] request = connector.takeSent();
+        assertNotNull(request);
+        assertArrayEquals(new byte[] { EOT, '0', '0', '1', '1', 'T', '1', ENQ }, request);
+    }
+
+    @Test
+    public void answerSplitOverSeveralReads() throws Exception {
+        CompletableFuture<String> read = connector.readAsync(ADDR, WR3223Commands.T1, RequestPriority.SENSOR_READ);
+        connector.takeSent();
+        byte[] answer = answer(WR3223Commands.T1, "21.5");
+        for (byte value : answer) {
+            assertFalse(read.isDone());
+            connector.receive(value);
+        }
+        assertEquals("21.5", read.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, connector.getOutcomeCount(FrameOutcome.OK));
+    }
+
+    @Test
+    public void checkSumEqualToStxCompletesRead() throws Exception {
+        CompletableFuture<String> read = connector.readAsync(ADDR, WR3223Commands.SW, RequestPriority.SENSOR_READ);
+        connector.takeSent();
+        connector.receive(answer(WR3223Commands.SW, "14"));
+        assertEquals("14", read.get(WAIT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void checkSumEqualToEtxCompletesRead() throws Exception {
+        CompletableFuture<String> read = connector.readAsync(ADDR, WR3223Commands.SW, RequestPriority.SENSOR_READ);
+        connector.takeSent();
+        connector.receive(answer(WR3223Commands.SW, "15"));
+        assertEquals("15", read.get(WAIT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void partialAnswerIsDiscardedOnStx() throws Exception {
+        CompletableFuture<String> read = connector.readAsync(ADDR, WR3223Commands.T1, RequestPriority.SENSOR_READ);
+        connector.takeSent();
+        connector.receive(new byte[] { STX, 'T', '1', '2' });
+        connector.receive(answer(WR3223Commands.T1, "21.5"));
+        assertEquals("21.5", read.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, connector.getOutcomeCount(FrameOutcome.RESYNC));
+    }
+
+    @Test
+    public void answerOfEarlierRequestIsSkipped() throws Exception {
+        CompletableFuture<String> read = connector.readAsync(ADDR, WR3223Commands.T1, RequestPriority.SENSOR_READ);
+        connector.takeSent();
+        connector.receive(concat(answer(WR3223Commands.T2, "3.0"), answer(WR3223Commands.T1, "21.5")));
+        assertEquals("21.5", read.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, connector.getOutcomeCount(FrameOutcome.WRONG_COMMAND));
+    }
+
+    @Test
+    public void wrongCheckSumIsRequestedAgain() throws Exception {
+        CompletableFuture<String> read = connector.readAsync(ADDR, WR3223Commands.T1, RequestPriority.SENSOR_READ);
+        connector.takeSent();
+        byte[] corrupted = answer(WR3223Commands.T1, "21.5");
+        corrupted[corrupted.length - 1] ^= 0x01;
+        connector.receive(corrupted);
+        assertNotNull(connector.takeSent());
+        connector.receive(answer(WR3223Commands.T1, "21.5"));
+        assertEquals("21.5", read.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, connector.getOutcomeCount(FrameOutcome.CHECKSUM_ERROR));
+        assertEquals(1, connector.getOutcomeCount(FrameOutcome.RETRIED));
+    }
+
+    @Test
+    public void ackAndNakCompleteWrite() throws Exception {
+        CompletableFuture<Boolean> write = connector.writeAsync(ADDR, WR3223Commands.SW, "3");
+        connector.takeSent();
+        connector.receive(ACK);
+        assertTrue(write.get(WAIT_SECONDS, TimeUnit.SECONDS));
+
+        write = connector.writeAsync(ADDR, WR3223Commands.SW, "3");
+        connector.takeSent();
+        connector.receive(NAK);
+        assertFalse(write.get(WAIT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void answerWhileWaitingForReplyIsSkipped() throws Exception {
+        CompletableFuture<Boolean> write = connector.writeAsync(ADDR, WR3223Commands.SW, "3");
+        connector.takeSent();
+        connector.receive(concat(answer(WR3223Commands.T1, "21.5"), new byte[] { ACK }));
+        assertTrue(write.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, connector.getOutcomeCount(FrameOutcome.WRONG_COMMAND));
+    }
+
+    @Test
+    public void ackWhileWaitingForAnswerIsDiscarded() throws Exception {
+        CompletableFuture<String> read = connector.readAsync(ADDR, WR3223Commands.T1, RequestPriority.SENSOR_READ);
+        connector.takeSent();
+        connector.receive(ACK);
+        assertFalse(read.isDone());
+        connector.receive(answer(WR3223Commands.T1, "21.5"));
+        assertEquals("21.5", read.get(WAIT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void skippedAnswersDontExtendTheResponseTimeout() throws Exception {
+        ScriptedConnector connector = new ScriptedConnector(100);
+        try {
+            long start = System.nanoTime();
+            CompletableFuture<String> read = connector.readAsync(ADDR, WR3223Commands.T1,
+                    RequestPriority.SENSOR_READ);
+            byte[] stale = answer(WR3223Commands.T2, "3.0");
+            while (!read.isDone() && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(WAIT_SECONDS)) {
+                connector.receive(stale);
+                Thread.sleep(10);
+            }
+            ExecutionException e = assertThrows(ExecutionException.class, () -> read.get());
+            assertTrue(e.getCause() instanceof FrameException);
+            assertEquals(FrameOutcome.TIMEOUT, ((FrameException) e.getCause()).getOutcome());
+            // Three attempts with 100 ms each, not the duration of the stale answers
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+            assertEquals(3, connector.getOutcomeCount(FrameOutcome.TIMEOUT));
+            assertTrue(connector.getOutcomeCount(FrameOutcome.WRONG_COMMAND) > 0);
+        } finally {
+            connector.close();
+        }
+    }
+
+    @Test
+    public void transportFailureFailsRequest() throws Exception {
+        CompletableFuture<String> read = connector.readAsync(ADDR, WR3223Commands.T1, RequestPriority.SENSOR_READ);
+        connector.takeSent();
+        connector.failed(new IOException("Line broken."));
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> read.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IOException);
+        // The failure is sticky
+        CompletableFuture<String> next = connector.readAsync(ADDR, WR3223Commands.T1, RequestPriority.SENSOR_READ);
+        assertThrows(ExecutionException.class, () -> next.get(WAIT_SECONDS, TimeUnit.SECONDS));
+    }
+}
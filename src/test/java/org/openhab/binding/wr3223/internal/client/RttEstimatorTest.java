@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the {@link RttEstimator}.
+ *
+ * @author Michael Fraefel
+ *
+ */
+@NonNullByDefault
+public class RttEstimatorTest {
+
+    private final RttEstimator rtt = new RttEstimator(100, 3000);
+
+    @Test
+    public void startsWithMaximumTimeout() {
+        assertEquals(3000, rtt.getTimeout());
+    }
+
+    @Test
+    public void firstSampleSetsTimeout() {
+        rtt.addSample(100);
+        // srtt + 4 * rttvar with rttvar = rtt / 2
+        assertEquals(300, rtt.getTimeout());
+        assertEquals(100, rtt.getSmoothedRtt(), 0.001);
+    }
+
+    @Test
+    public void timeoutDoublesOnTimeout() {
+        rtt.addSample(100);
+        rtt.onTimeout();
+        assertEquals(600, rtt.getTimeout());
+        rtt.onTimeout();
+        assertEquals(1200, rtt.getTimeout());
+        rtt.onTimeout();
+        assertEquals(2400, rtt.getTimeout());
+    }
+
+    @Test
+    public void doublingIsClampedToMaximum() {
+        rtt.addSample(100);
+        for (int ii = 0; ii < 10; ii++) {
+            rtt.onTimeout();
+        }
+        assertEquals(3000, rtt.getTimeout());
+    }
+
+    @Test
+    public void doublingDoesntOverflow() {
+        RttEstimator rtt = new RttEstimator(100, Integer.MAX_VALUE);
+        for (int ii = 0; ii < 40; ii++) {
+            rtt.onTimeout();
+        }
+        assertEquals(Integer.MAX_VALUE, rtt.getTimeout());
+    }
+
+    @Test
+    public void fastAnswersAreClampedToMinimum() {
+        for (int ii = 0; ii < 20; ii++) {
+            rtt.addSample(1);
+        }
+        assertEquals(100, rtt.getTimeout());
+    }
+
+    @Test
+    public void sampleAfterTimeoutRestoresEstimate() {
+        rtt.addSample(100);
+        rtt.onTimeout();
+        rtt.addSample(100);
+        // rttvar = 0.75 * 50, srtt = 100
+        assertEquals(250, rtt.getTimeout());
+    }
+
+    @Test
+    public void resetClampsInitialTimeout() {
+        rtt.reset(10000);
+        assertEquals(3000, rtt.getTimeout());
+        rtt.reset(10);
+        assertEquals(100, rtt.getTimeout());
+        assertEquals(-1, rtt.getSmoothedRtt(), 0.001);
+    }
+
+    @Test
+    public void newLimitsClampCurrentTimeout() {
+        rtt.setLimits(100, 1000);
+        assertEquals(1000, rtt.getTimeout());
+        rtt.setLimits(2000, 1000);
+        // The maximum isn't below the minimum
+        assertEquals(2000, rtt.getTimeout());
+    }
+}
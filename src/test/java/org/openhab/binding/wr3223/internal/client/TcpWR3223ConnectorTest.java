@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.wr3223.internal.simulator.WR3223Simulator;
+import org.openhab.core.thing.ThingStatus;
+
+/**
+ * Requests over a TCP connection to the simulator.
+ *
+ * @author Michael Fraefel
+ *
+ */
+@NonNullByDefault
+public class TcpWR3223ConnectorTest extends AbstractConnectorTest {
+
+    @Override
+    protected AbstractWR3223Connector connect(WR3223Simulator simulator) throws IOException {
+        int port = simulator.startTcp(0);
+        TcpWR3223Connector connector = new TcpWR3223Connector();
+        connector.setResponseTimeoutLimits(100, 500);
+        assertEquals(ThingStatus.ONLINE, connector.connect("localhost", port).getStatus());
+        return connector;
+    }
+}
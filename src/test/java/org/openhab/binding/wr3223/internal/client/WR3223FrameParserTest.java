@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.openhab.binding.wr3223.internal.client.WR3223Frame.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the {@link WR3223FrameParser}.
+ *
+ * @author Michael Fraefel
+ *
+ */
+@NonNullByDefault
+public class WR3223FrameParserTest {
+
+    private final WR3223Frame frame = new WR3223Frame();
+    private final WR3223FrameParser parser = new WR3223FrameParser(frame);
+
+    @Test
+    public void parsesCompleteAnswer() throws FrameException {
+        byte[] answer = answer(WR3223Commands.T1, "21.5");
+        assertEquals(answer.length, parser.parse(answer, 0, answer.length, false));
+        assertTrue(parser.isFrameComplete());
+        frame.checkAnswer(WR3223Commands.T1, parser.getCheckSum());
+        assertEquals("21.5", frame.getPayload());
+        assertEquals(0, parser.takeDiscarded());
+    }
+
+    @Test
+    public void answerSplitOverSeveralReads() throws FrameException {
+        byte[] answer = answer(WR3223Commands.T1, "21.5");
+        for (int ii = 0; ii < answer.length - 1; ii++) {
+            assertEquals(1, parser.parse(answer, ii, 1, false));
+            assertFalse(parser.isFrameComplete());
+        }
+        assertEquals(1, parser.parse(answer, answer.length - 1, 1, false));
+        assertTrue(parser.isFrameComplete());
+        frame.checkAnswer(WR3223Commands.T1, parser.getCheckSum());
+        assertEquals("21.5", frame.getPayload());
+    }
+
+    @Test
+    public void restOfTheReadIsLeftForTheNextAnswer() throws FrameException {
+        byte[] first = answer(WR3223Commands.T1, "21.5");
+        byte[] data = concat(first, answer(WR3223Commands.T2, "-3.0"));
+        assertEquals(first.length, parser.parse(data, 0, data.length, false));
+        frame.checkAnswer(WR3223Commands.T1, parser.getCheckSum());
+        int parsed = parser.parse(data, first.length, data.length - first.length, false);
+        assertEquals(data.length - first.length, parsed);
+        frame.checkAnswer(WR3223Commands.T2, parser.getCheckSum());
+        assertEquals("-3.0", frame.getPayload());
+    }
+
+    @Test
+    public void noiseInFrontOfTheAnswerIsDiscarded() throws FrameException {
+        byte[] data = concat("x7?".getBytes(StandardCharsets.US_ASCII), answer(WR3223Commands.T1, "21.5"));
+        assertEquals(data.length, parser.parse(data, 0, data.length, false));
+        assertTrue(parser.isFrameComplete());
+        assertEquals(3, parser.takeDiscarded());
+        assertEquals(0, parser.takeDiscarded());
+    }
+
+    @Test
+    public void stxInsidePayloadStartsNewAnswer() throws FrameException {
+        byte[] partial = { STX, 'T', '1', '2' };
+        byte[] data = concat(partial, answer(WR3223Commands.T1, "21.5"));
+        assertEquals(data.length, parser.parse(data, 0, data.length, false));
+        assertTrue(parser.isFrameComplete());
+        frame.checkAnswer(WR3223Commands.T1, parser.getCheckSum());
+        assertEquals("21.5", frame.getPayload());
+        assertEquals(partial.length, parser.takeDiscarded());
+    }
+
+    @Test
+    public void checkSumEqualToStxEndsAnswer() throws FrameException {
+        byte[] answer = answer(WR3223Commands.SW, "14");
+        assertEquals(STX, answer[answer.length - 1]);
+        assertEquals(answer.length, parser.parse(answer, 0, answer.length, false));
+        assertTrue(parser.isFrameComplete());
+        frame.checkAnswer(WR3223Commands.SW, parser.getCheckSum());
+        assertEquals("14", frame.getPayload());
+    }
+
+    @Test
+    public void checkSumEqualToEtxEndsAnswer() throws FrameException {
+        byte[] answer = answer(WR3223Commands.SW, "15");
+        assertEquals(ETX, answer[answer.length - 1]);
+        byte[] data = concat(answer, answer(WR3223Commands.T1, "21.5"));
+        assertEquals(answer.length, parser.parse(data, 0, data.length, false));
+        assertTrue(parser.isFrameComplete());
+        frame.checkAnswer(WR3223Commands.SW, parser.getCheckSum());
+        assertEquals("15", frame.getPayload());
+    }
+
+    @Test
+    public void wrongCheckSumIsDetected() {
+        byte[] answer = answer(WR3223Commands.T1, "21.5");
+        answer[answer.length - 1] ^= 0x01;
+        assertDoesNotThrow(() -> parser.parse(answer, 0, answer.length, false));
+        FrameException e = assertThrows(FrameException.class,
+                () -> frame.checkAnswer(WR3223Commands.T1, parser.getCheckSum()));
+        assertEquals(FrameOutcome.CHECKSUM_ERROR, e.getOutcome());
+    }
+
+    @Test
+    public void ackAndNakAreRepliesInIdleState() throws FrameException {
+        byte[] data = { ACK, NAK };
+        assertEquals(1, parser.parse(data, 0, data.length, true));
+        assertEquals(ACK, parser.getReply());
+        assertFalse(parser.isFrameComplete());
+        assertEquals(1, parser.parse(data, 1, 1, true));
+        assertEquals(NAK, parser.getReply());
+    }
+
+    @Test
+    public void ackIsDiscardedIfNoReplyIsExpected() throws FrameException {
+        byte[] data = { ACK, NAK };
+        assertEquals(data.length, parser.parse(data, 0, data.length, false));
+        assertEquals(-1, parser.getReply());
+        assertEquals(data.length, parser.takeDiscarded());
+    }
+
+    @Test
+    public void ackInsideAnswerIsNoReply() throws FrameException {
+        byte[] data = { STX, 'T', '1', ACK, ETX, 0 };
+        data[data.length - 1] = (byte) buildCheckSum(data, 1, data.length - 2);
+        assertEquals(data.length, parser.parse(data, 0, data.length, true));
+        assertEquals(-1, parser.getReply());
+        assertTrue(parser.isFrameComplete());
+    }
+
+    @Test
+    public void tooLongAnswerIsFramingError() throws FrameException {
+        byte[] data = new byte[64];
+        data[0] = STX;
+        for (int ii = 1; ii < data.length; ii++) {
+            data[ii] = '1';
+        }
+        FrameException e = assertThrows(FrameException.class, () -> parser.parse(data, 0, data.length, false));
+        assertEquals(FrameOutcome.FRAMING_ERROR, e.getOutcome());
+        // The parser is idle afterwards and finds the next answer
+        byte[] answer = answer(WR3223Commands.T1, "21.5");
+        assertEquals(answer.length, parser.parse(answer, 0, answer.length, false));
+        assertTrue(parser.isFrameComplete());
+    }
+
+    /**
+     * @return the answer of the WR3223 with STX, command, value, ETX and checksum.
+     */
+    static byte[] answer(WR3223Commands command, String value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(STX);
+        out.write(command.getFirstByte());
+        out.write(command.getSecondByte());
+        byte[] payload = value.getBytes(StandardCharsets.US_ASCII);
+        out.write(payload, 0, payload.length);
+        out.write(ETX);
+        byte[] data = out.toByteArray();
+        byte[] answer = new byte[data.length + 1];
+        System.arraycopy(data, 0, answer, 0, data.length);
+        answer[data.length] = (byte) buildCheckSum(data, 1, data.length - 1);
+        return answer;
+    }
+
+    static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the {@link CoalescingWriteQueue}.
+ *
+ * @author Michael Fraefel
+ *
+ */
+@NonNullByDefault
+public class CoalescingWriteQueueTest {
+
+    private final CoalescingWriteQueue queue = new CoalescingWriteQueue();
+
+    @Test
+    public void putReplacesPendingValue() {
+        queue.put(WR3223CommandType.OPERATION_MODE, 1);
+        queue.put(WR3223CommandType.OPERATION_MODE, 2);
+        assertTrue(queue.isPending(WR3223CommandType.OPERATION_MODE));
+        assertEquals(2, queue.take(WR3223CommandType.OPERATION_MODE));
+        assertFalse(queue.isPending(WR3223CommandType.OPERATION_MODE));
+        assertNull(queue.nextPending(0));
+    }
+
+    @Test
+    public void nextPendingFindsCommandsInOrderOfTheOrdinal() {
+        WR3223CommandType[] types = WR3223CommandType.values();
+        WR3223CommandType first = types[3];
+        WR3223CommandType last = types[types.length - 1];
+        queue.put(last, 7);
+        queue.put(first, 5);
+        assertEquals(first, queue.nextPending(0));
+        assertEquals(first, queue.nextPending(first.ordinal()));
+        assertEquals(last, queue.nextPending(first.ordinal() + 1));
+        assertNull(queue.nextPending(last.ordinal() + 1));
+    }
+
+    @Test
+    public void retryMarksTakenValueAsPending() {
+        queue.put(WR3223CommandType.OPERATION_MODE, 1);
+        assertEquals(1, queue.take(WR3223CommandType.OPERATION_MODE));
+        queue.retry(WR3223CommandType.OPERATION_MODE);
+        assertTrue(queue.isPending(WR3223CommandType.OPERATION_MODE));
+        assertEquals(1, queue.take(WR3223CommandType.OPERATION_MODE));
+    }
+
+    @Test
+    public void retryWritesNewerValue() {
+        queue.put(WR3223CommandType.OPERATION_MODE, 1);
+        queue.take(WR3223CommandType.OPERATION_MODE);
+        // Put while the write is in progress, then the write fails
+        queue.put(WR3223CommandType.OPERATION_MODE, 2);
+        queue.retry(WR3223CommandType.OPERATION_MODE);
+        assertEquals(2, queue.take(WR3223CommandType.OPERATION_MODE));
+        assertFalse(queue.isPending(WR3223CommandType.OPERATION_MODE));
+    }
+
+    @Test
+    public void valuePutWhileWritingIsWrittenAfterwards() {
+        queue.put(WR3223CommandType.OPERATION_MODE, 1);
+        assertEquals(1, queue.take(WR3223CommandType.OPERATION_MODE));
+        queue.put(WR3223CommandType.OPERATION_MODE, 2);
+        assertTrue(queue.isPending(WR3223CommandType.OPERATION_MODE));
+        assertEquals(2, queue.take(WR3223CommandType.OPERATION_MODE));
+    }
+
+    /**
+     * A command thread puts increasing values while a polling thread takes them. The last put value must always be
+     * taken, so no value gets lost between the put and the take.
+     */
+    @Test
+    public void lastPutValueIsTakenWithConcurrentTakes() throws InterruptedException {
+        WR3223CommandType type = WR3223CommandType.OPERATION_MODE;
+        int count = 200000;
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicInteger lastTaken = new AtomicInteger(-1);
+        Thread poller = new Thread(() -> {
+            while (done.getCount() > 0 || queue.isPending(type)) {
+                if (queue.isPending(type)) {
+                    int value = queue.take(type);
+                    assertTrue(value >= lastTaken.get(), "Values are taken in the order of the puts.");
+                    lastTaken.set(value);
+                    if (value % 7 == 0) {
+                        // Failed write
+                        queue.retry(type);
+                    }
+                }
+            }
+        });
+        poller.start();
+        for (int ii = 0; ii < count; ii++) {
+            queue.put(type, ii);
+        }
+        done.countDown();
+        poller.join(10000);
+        assertFalse(poller.isAlive());
+        assertEquals(count - 1, lastTaken.get());
+        assertFalse(queue.isPending(type));
+    }
+
+    @Test
+    public void concurrentPutsOfDifferentCommandsAreAllPending() throws InterruptedException {
+        WR3223CommandType[] types = WR3223CommandType.values();
+        Thread[] threads = new Thread[4];
+        for (int tt = 0; tt < threads.length; tt++) {
+            int offset = tt;
+            threads[tt] = new Thread(() -> {
+                for (int ii = offset; ii < types.length; ii += threads.length) {
+                    queue.put(types[ii], ii);
+                }
+            });
+            threads[tt].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        int taken = 0;
+        for (WR3223CommandType type = queue.nextPending(0); type != null; type = queue.nextPending(0)) {
+            assertEquals(type.ordinal(), queue.take(type));
+            taken++;
+        }
+        assertEquals(types.length, taken);
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the reconnect delay of the {@link ConnectionManager}.
+ *
+ * @author Michael Fraefel
+ *
+ */
+@NonNullByDefault
+public class ConnectionManagerTest {
+
+    private static final long INITIAL_DELAY = 1000;
+    private static final long MAX_DELAY = 120000;
+
+    @Test
+    public void delayDoublesWithinJitterBounds() {
+        Random random = new Random(42);
+        for (int attempt = 0; attempt < 20; attempt++) {
+            long delay = Math.min(MAX_DELAY, INITIAL_DELAY << attempt);
+            for (int ii = 0; ii < 1000; ii++) {
+                long reconnectDelay = ConnectionManager.getReconnectDelay(attempt, random);
+                assertTrue(reconnectDelay >= delay / 2, "Delay " + reconnectDelay + " of attempt " + attempt);
+                assertTrue(reconnectDelay <= delay, "Delay " + reconnectDelay + " of attempt " + attempt);
+            }
+        }
+    }
+
+    @Test
+    public void jitterBoundsAreReached() {
+        Random lowest = new Random() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public double nextDouble() {
+                return 0;
+            }
+        };
+        Random highest = new Random() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public double nextDouble() {
+                return Math.nextDown(1.0);
+            }
+        };
+        assertEquals(500, ConnectionManager.getReconnectDelay(0, lowest));
+        assertEquals(1000, ConnectionManager.getReconnectDelay(0, highest));
+        assertEquals(2000, ConnectionManager.getReconnectDelay(2, lowest));
+        assertEquals(4000, ConnectionManager.getReconnectDelay(2, highest));
+        assertEquals(60000, ConnectionManager.getReconnectDelay(10, lowest));
+        assertEquals(120000, ConnectionManager.getReconnectDelay(10, highest));
+    }
+
+    @Test
+    public void manyFailedAttemptsDontOverflow() {
+        Random random = new Random(42);
+        for (int attempt : new int[] { 16, 17, 63, 64, 1000, Integer.MAX_VALUE }) {
+            long delay = ConnectionManager.getReconnectDelay(attempt, random);
+            assertTrue(delay >= MAX_DELAY / 2 && delay <= MAX_DELAY, "Delay " + delay + " of attempt " + attempt);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the {@link PollPlanner}.
+ *
+ * @author Michael Fraefel
+ *
+ */
+@NonNullByDefault
+public class PollPlannerTest {
+
+    private static final WR3223CommandType FAST_1 = WR3223CommandType.TEMPERATURE_OUTSIDE;
+    private static final WR3223CommandType FAST_2 = WR3223CommandType.TEMPERATURE_SUPPLY_AIR;
+    private static final WR3223CommandType NORMAL_1 = WR3223CommandType.VENTILATION_LEVEL;
+    private static final WR3223CommandType NORMAL_2 = WR3223CommandType.OPERATION_MODE;
+    private static final WR3223CommandType NORMAL_3 = WR3223CommandType.HEAT_FEEDBACK_RATE;
+    private static final WR3223CommandType SLOW_1 = WR3223CommandType.SOLAR_MAX;
+    private static final WR3223CommandType ON_DEMAND_1 = WR3223CommandType.DELTA_T_ON;
+
+    private final Map<WR3223CommandType, PollingTier> tiers = new EnumMap<>(WR3223CommandType.class);
+
+    /**
+     * Cycle of 10 s, normal tier every 6th and slow tier every 60th cycle.
+     */
+    private final PollPlanner planner = new PollPlanner(10, 60, 600);
+
+    @BeforeEach
+    public void setUp() {
+        tiers.put(FAST_1, PollingTier.FAST);
+        tiers.put(FAST_2, PollingTier.FAST);
+        tiers.put(NORMAL_1, PollingTier.NORMAL);
+        tiers.put(NORMAL_2, PollingTier.NORMAL);
+        tiers.put(NORMAL_3, PollingTier.NORMAL);
+        tiers.put(SLOW_1, PollingTier.SLOW);
+        tiers.put(ON_DEMAND_1, PollingTier.ON_DEMAND);
+        planner.setCommands(tiers.keySet().toArray(new WR3223CommandType[0]), tiers::get);
+    }
+
+    @Test
+    public void firstCycleReadsAllCommands() {
+        List<WR3223CommandType> due = planner.nextCycle();
+        assertEquals(tiers.size(), due.size());
+        assertTrue(due.containsAll(tiers.keySet()));
+    }
+
+    @Test
+    public void commandsOfTheTiersAreSpreadOverTheirInterval() {
+        planner.nextCycle();
+        Map<WR3223CommandType, Integer> reads = new EnumMap<>(WR3223CommandType.class);
+        for (int cycle = 0; cycle < 60; cycle++) {
+            for (WR3223CommandType command : planner.nextCycle()) {
+                reads.merge(command, 1, Integer::sum);
+            }
+        }
+        assertEquals(60, reads.get(FAST_1));
+        assertEquals(60, reads.get(FAST_2));
+        assertEquals(10, reads.get(NORMAL_1));
+        assertEquals(10, reads.get(NORMAL_2));
+        assertEquals(10, reads.get(NORMAL_3));
+        assertEquals(1, reads.get(SLOW_1));
+        assertNull(reads.get(ON_DEMAND_1));
+    }
+
+    @Test
+    public void carriedOverCommandsAreReadFirst() {
+        planner.nextCycle();
+        planner.carryOver(SLOW_1);
+        planner.carryOver(NORMAL_2);
+        List<WR3223CommandType> due = planner.nextCycle();
+        // In the order of the command types, before the due commands
+        List<WR3223CommandType> expected = new ArrayList<>(Arrays.asList(SLOW_1, NORMAL_2));
+        Collections.sort(expected);
+        assertEquals(expected, due.subList(0, 2));
+        assertTrue(due.containsAll(Arrays.asList(FAST_1, FAST_2)));
+    }
+
+    @Test
+    public void carriedOverCommandIsReadOnceIfItIsDue() {
+        planner.nextCycle();
+        planner.carryOver(FAST_2);
+        List<WR3223CommandType> due = planner.nextCycle();
+        assertEquals(FAST_2, due.get(0));
+        assertEquals(1, Collections.frequency(due, FAST_2));
+        assertEquals(1, Collections.frequency(due, FAST_1));
+    }
+
+    @Test
+    public void carryOverOnlyLastsOneCycle() {
+        planner.nextCycle();
+        planner.carryOver(SLOW_1);
+        assertTrue(planner.nextCycle().contains(SLOW_1));
+        assertFalse(planner.nextCycle().contains(SLOW_1));
+    }
+
+    @Test
+    public void carryOverOfCommandWhichIsNoLongerReadIsDropped() {
+        planner.nextCycle();
+        planner.carryOver(SLOW_1);
+        tiers.remove(SLOW_1);
+        planner.setCommands(tiers.keySet().toArray(new WR3223CommandType[0]), tiers::get);
+        assertFalse(planner.nextCycle().contains(SLOW_1));
+    }
+
+    @Test
+    public void fullRefreshReadsOnDemandCommands() {
+        planner.nextCycle();
+        assertFalse(planner.nextCycle().contains(ON_DEMAND_1));
+        planner.requestFullRefresh();
+        List<WR3223CommandType> due = planner.nextCycle();
+        assertEquals(tiers.size(), due.size());
+        assertTrue(due.contains(ON_DEMAND_1));
+        assertFalse(planner.nextCycle().contains(ON_DEMAND_1));
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the {@link PublishFilter}.
+ *
+ * @author Michael Fraefel
+ *
+ */
+@NonNullByDefault
+public class PublishFilterTest {
+
+    private static final WR3223CommandType TYPE = WR3223CommandType.TEMPERATURE_OUTSIDE;
+
+    private final PublishFilter filter = new PublishFilter(0);
+
+    @Test
+    public void firstValueIsPublished() {
+        assertTrue(filter.shouldPublish(TYPE, 21.5));
+    }
+
+    @Test
+    public void withoutDeadbandEveryChangeIsPublished() {
+        assertTrue(filter.shouldPublish(TYPE, 21.5));
+        assertFalse(filter.shouldPublish(TYPE, 21.5));
+        assertTrue(filter.shouldPublish(TYPE, 21.6));
+        assertTrue(filter.shouldPublish(TYPE, -0.0));
+        assertTrue(filter.shouldPublish(TYPE, 0.0));
+    }
+
+    @Test
+    public void changeEqualToDeadbandIsPublished() {
+        filter.setDeadband(TYPE, 0.5);
+        assertTrue(filter.shouldPublish(TYPE, 20.0));
+        assertTrue(filter.shouldPublish(TYPE, 20.5));
+        assertTrue(filter.shouldPublish(TYPE, 20.0));
+    }
+
+    @Test
+    public void changeSmallerThanDeadbandIsNotPublished() {
+        filter.setDeadband(TYPE, 0.5);
+        assertTrue(filter.shouldPublish(TYPE, 20.0));
+        assertFalse(filter.shouldPublish(TYPE, 20.4));
+        assertFalse(filter.shouldPublish(TYPE, 19.6));
+    }
+
+    @Test
+    public void smallChangesDontAccumulate() {
+        filter.setDeadband(TYPE, 0.5);
+        assertTrue(filter.shouldPublish(TYPE, 20.0));
+        assertFalse(filter.shouldPublish(TYPE, 20.3));
+        // Compared with the last published value, not with the last read value
+        assertTrue(filter.shouldPublish(TYPE, 20.6));
+        assertFalse(filter.shouldPublish(TYPE, 20.3));
+    }
+
+    @Test
+    public void negativeDeadbandPublishesEveryChange() {
+        filter.setDeadband(TYPE, -1);
+        assertTrue(filter.shouldPublish(TYPE, 20.0));
+        assertFalse(filter.shouldPublish(TYPE, 20.0));
+        assertTrue(filter.shouldPublish(TYPE, 20.01));
+    }
+
+    @Test
+    public void deadbandOnlyAppliesToItsChannel() {
+        filter.setDeadband(TYPE, 5);
+        assertTrue(filter.shouldPublish(WR3223CommandType.TEMPERATURE_SUPPLY_AIR, 20.0));
+        assertTrue(filter.shouldPublish(WR3223CommandType.TEMPERATURE_SUPPLY_AIR, 20.1));
+    }
+
+    @Test
+    public void resetPublishesUnchangedValues() {
+        filter.setDeadband(TYPE, 0.5);
+        assertTrue(filter.shouldPublish(TYPE, 20.0));
+        filter.reset();
+        assertTrue(filter.shouldPublish(TYPE, 20.0));
+        assertFalse(filter.shouldPublish(TYPE, 20.0));
+    }
+
+    @Test
+    public void booleanValuesArePublishedOnChange() {
+        assertTrue(filter.shouldPublish(WR3223CommandType.BYPASS, true));
+        assertFalse(filter.shouldPublish(WR3223CommandType.BYPASS, true));
+        assertTrue(filter.shouldPublish(WR3223CommandType.BYPASS, false));
+    }
+
+    @Test
+    public void unchangedValueIsRepublishedAfterInterval() throws InterruptedException {
+        PublishFilter filter = new PublishFilter(1);
+        assertTrue(filter.shouldPublish(TYPE, 20.0));
+        assertFalse(filter.shouldPublish(TYPE, 20.0));
+        Thread.sleep(1100);
+        assertTrue(filter.shouldPublish(TYPE, 20.0));
+    }
+}
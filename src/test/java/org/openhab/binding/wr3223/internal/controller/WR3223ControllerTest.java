@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the half open detection of the {@link WR3223Controller}.
+ *
+ * @author Michael Fraefel
+ *
+ */
+@NonNullByDefault
+public class WR3223ControllerTest {
+
+    @Test
+    public void shorterIntervalWhileKeepAliveIsSent() {
+        assertEquals(10, WR3223Controller.getHalfOpenInterval(60, 10, true));
+        assertEquals(5, WR3223Controller.getHalfOpenInterval(5, 10, true));
+    }
+
+    @Test
+    public void refreshIntervalWhileControlDeviceIsActive() {
+        // No keep alive messages with an active control device, the controller is only asked every 60 seconds
+        long interval = WR3223Controller.getHalfOpenInterval(60, 10, false);
+        assertEquals(60, interval);
+        assertFalse(WR3223Controller.isHalfOpen(65000, interval));
+        assertFalse(WR3223Controller.isHalfOpen(180000, interval));
+        assertTrue(WR3223Controller.isHalfOpen(180001, interval));
+    }
+
+    @Test
+    public void longRefreshWithKeepAlive() {
+        long interval = WR3223Controller.getHalfOpenInterval(60, 10, true);
+        assertFalse(WR3223Controller.isHalfOpen(25000, interval));
+        assertTrue(WR3223Controller.isHalfOpen(35000, interval));
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.simulator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In memory serial line between the binding (host) and the {@link WR3223Simulator} (device). The input stream of the
+ * host behaves like a serial port with a receive timeout: a read returns 0 bytes, if no data arrived within the
+ * timeout.
+ *
+ * @author Michael Fraefel
+ *
+ */
+public final class SimulatedSerialLine implements Closeable {
+
+    private final Pipe toDevice = new Pipe();
+    private final Pipe toHost = new Pipe();
+
+    private final InputStream hostInputStream = new PipeInputStream(toHost, true);
+    private final OutputStream hostOutputStream = new PipeOutputStream(toDevice);
+    private final InputStream deviceInputStream = new PipeInputStream(toDevice, false);
+    private final OutputStream deviceOutputStream = new PipeOutputStream(toHost);
+
+    /**
+     * Receive timeout of the host in milliseconds, 0 waits without timeout.
+     */
+    private volatile int receiveTimeout;
+
+    SimulatedSerialLine() {
+    }
+
+    /**
+     * @return the stream of the data from the simulator.
+     */
+    public InputStream getHostInputStream() {
+        return hostInputStream;
+    }
+
+    /**
+     * @return the stream of the data to the simulator.
+     */
+    public OutputStream getHostOutputStream() {
+        return hostOutputStream;
+    }
+
+    /**
+     * @param receiveTimeout timeout in milliseconds of the reads of the host, 0 waits without timeout
+     */
+    public void setReceiveTimeout(int receiveTimeout) {
+        this.receiveTimeout = receiveTimeout;
+    }
+
+    InputStream getDeviceInputStream() {
+        return deviceInputStream;
+    }
+
+    OutputStream getDeviceOutputStream() {
+        return deviceOutputStream;
+    }
+
+    @Override
+    public void close() {
+        toDevice.close();
+        toHost.close();
+    }
+
+    /**
+     * Bytes in transit in one direction. The writer waits, if the buffer is full.
+     */
+    private static final class Pipe {
+
+        private static final int CAPACITY = 4096;
+
+        private final byte[] buffer = new byte[CAPACITY];
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+
+        private int head;
+        private int size;
+        private boolean closed;
+
+        /**
+         * @param timeout timeout in milliseconds, 0 waits without timeout
+         * @return the number of read bytes, 0 after the timeout or -1 if the pipe is closed.
+         */
+        int read(byte[] data, int offset, int length, int timeout) throws IOException {
+            lock.lock();
+            try {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(timeout);
+                while (size == 0) {
+                    if (closed) {
+                        return -1;
+                    }
+                    if (timeout <= 0) {
+                        changed.await();
+                    } else if (remaining <= 0) {
+                        return 0;
+                    } else {
+                        remaining = changed.awaitNanos(remaining);
+                    }
+                }
+                int count = Math.min(length, size);
+                for (int ii = 0; ii < count; ii++) {
+                    data[offset + ii] = buffer[(head + ii) % CAPACITY];
+                }
+                head = (head + count) % CAPACITY;
+                size -= count;
+                changed.signalAll();
+                return count;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Read from the simulated line was interrupted.");
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void write(byte[] data, int offset, int length) throws IOException {
+            lock.lock();
+            try {
+                for (int ii = 0; ii < length; ii++) {
+                    while (size == CAPACITY && !closed) {
+                        changed.await();
+                    }
+                    if (closed) {
+                        throw new IOException("Simulated line is closed.");
+                    }
+                    buffer[(head + size) % CAPACITY] = data[offset + ii];
+                    size++;
+                }
+                changed.signalAll();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Write to the simulated line was interrupted.");
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int available() {
+            lock.lock();
+            try {
+                return size;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                closed = true;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private final class PipeInputStream extends InputStream {
+
+        private final Pipe pipe;
+
+        /**
+         * True if the reads use the receive timeout of the host.
+         */
+        private final boolean host;
+
+        private PipeInputStream(Pipe pipe, boolean host) {
+            this.pipe = pipe;
+            this.host = host;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] data = new byte[1];
+            int count = read(data, 0, 1);
+            return count == 1 ? data[0] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] data, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            return pipe.read(data, offset, length, host ? receiveTimeout : 0);
+        }
+
+        @Override
+        public int available() {
+            return pipe.available();
+        }
+
+        @Override
+        public void close() {
+            pipe.close();
+        }
+    }
+
+    private static final class PipeOutputStream extends OutputStream {
+
+        private final Pipe pipe;
+
+        private PipeOutputStream(Pipe pipe) {
+            this.pipe = pipe;
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            pipe.write(new byte[] { (byte) value }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) throws IOException {
+            pipe.write(data, offset, length);
+        }
+
+        @Override
+        public void close() {
+            pipe.close();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.simulator;
+
+import java.io.IOException;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.wr3223.internal.client.AbstractStreamWR3223Connector;
+import org.openhab.binding.wr3223.internal.client.ConnectResult;
+import org.openhab.core.thing.ThingStatus;
+
+/**
+ * Connector implementation for a {@link SimulatedSerialLine} of the {@link WR3223Simulator}. The connector behaves
+ * like the {@link org.openhab.binding.wr3223.internal.client.SerialWR3223Connector}.
+ *
+ * @author Michael Fraefel
+ *
+ */
+public class SimulatedSerialWR3223Connector extends AbstractStreamWR3223Connector {
+
+    /**
+     * Timeout for the answer of a read request in milliseconds, until the round trip time is measured.
+     */
+    private static final int INITIAL_RESPONSE_TIMEOUT = 2000;
+
+    /**
+     * Timeout of the reads from the line in milliseconds.
+     */
+    private static final int RECEIVE_TIMEOUT = 500;
+
+    @Nullable
+    private SimulatedSerialLine line;
+
+    /**
+     * Connect to the simulator over the line.
+     */
+    public @NonNull ConnectResult connect(SimulatedSerialLine line) {
+        this.line = line;
+        line.setReceiveTimeout(RECEIVE_TIMEOUT);
+        connect(line.getHostInputStream(), line.getHostOutputStream(), INITIAL_RESPONSE_TIMEOUT);
+        return new ConnectResult(ThingStatus.ONLINE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        SimulatedSerialLine line = this.line;
+        if (line != null) {
+            line.close();
+            this.line = null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.simulator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.wr3223.internal.client.AbstractConnectorTest;
+import org.openhab.binding.wr3223.internal.client.AbstractWR3223Connector;
+import org.openhab.core.thing.ThingStatus;
+
+/**
+ * Requests over a simulated serial line, which uses the same stream connector as the serial port.
+ *
+ * @author Michael Fraefel
+ *
+ */
+@NonNullByDefault
+public class SimulatedSerialWR3223ConnectorTest extends AbstractConnectorTest {
+
+    @Override
+    protected AbstractWR3223Connector connect(WR3223Simulator simulator) {
+        SimulatedSerialWR3223Connector connector = new SimulatedSerialWR3223Connector();
+        connector.setResponseTimeoutLimits(100, 500);
+        assertEquals(ThingStatus.ONLINE, connector.connect(simulator.openSerialLine()).getStatus());
+        return connector;
+    }
+}
@@ -0,0 +1,515 @@
+/**
+ * Copyright (c) 2010-2019 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.wr3223.internal.simulator;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.wr3223.internal.client.WR3223Commands;
+import org.openhab.binding.wr3223.internal.client.WR3223Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Simulates WR3223 controllers, so the connectors and the controller can be run and measured without a physical unit.
+ * The simulator speaks the framing of the WR3223:
+ *
+ * <pre>
+ * read request:  EOT address(4) command(2) ENQ          answer: STX command(2) value ETX BCC
+ * write request: EOT address(4) STX command(2) value ETX BCC  answer: ACK or NAK
+ * </pre>
+ *
+ * The simulator serves a local TCP port like a serial to ethernet gateway, or a {@link SimulatedSerialLine}. Several
+ * controllers with different addresses may be simulated on one line, requests to other addresses aren't answered.
+ * Latency, noise, dropped answers and the line rate of the serial interface can be configured while the simulator
+ * runs. The random faults are reproducible with the seed.
+ *
+ * @author Michael Fraefel
+ *
+ */
+public final class WR3223Simulator implements Closeable {
+
+    private static final byte STX = 0x02;
+    private static final byte ETX = 0x03;
+    private static final byte EOT = 0x04;
+    private static final byte ENQ = 0x05;
+    private static final byte ACK = 0x06;
+    private static final byte NAK = 0x15;
+
+    /**
+     * Answer of the WR3223 to a command it doesn't support.
+     */
+    public static final String UNSUPPORTED = "???";
+
+    /**
+     * The serial interface uses 7 data bits, parity and one stop bit, so every byte takes 10 bits on the line.
+     */
+    private static final int BITS_PER_BYTE = 10;
+
+    /**
+     * Longest value of a write request.
+     */
+    private static final int MAX_VALUE_LENGTH = 16;
+
+    private static final Logger logger = LoggerFactory.getLogger(WR3223Simulator.class);
+
+    /**
+     * Registers by controller address, guarded by this.
+     */
+    private final Map<Integer, Map<WR3223Commands, String>> registers = new HashMap<>();
+
+    /**
+     * Not supported commands by controller address, guarded by this.
+     */
+    private final Map<Integer, Set<WR3223Commands>> unsupported = new HashMap<>();
+
+    /**
+     * Random faults, guarded by itself.
+     */
+    private final Random random;
+
+    private volatile long latency;
+    private volatile double noiseProbability;
+    private volatile double dropProbability;
+    private volatile int baudRate;
+
+    private final AtomicLong readCount = new AtomicLong();
+    private final AtomicLong writeCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * Number of the next requests, which aren't answered independent of the drop probability.
+     */
+    private final AtomicInteger dropRequests = new AtomicInteger();
+
+    /**
+     * Open server socket, lines and client sockets, which are closed with the simulator.
+     */
+    private final List<Closeable> resources = new CopyOnWriteArrayList<>();
+
+    private volatile boolean closed;
+
+    /**
+     * Create a simulator with the controller address 1.
+     *
+     * @param seed seed of the random faults
+     */
+    public WR3223Simulator(long seed) {
+        this.random = new Random(seed);
+        addController(1);
+    }
+
+    /**
+     * Simulate a controller with the address. All registers of a new controller have the value 0.
+     *
+     * @param addr controller address
+     */
+    public synchronized void addController(int addr) {
+        registers.computeIfAbsent(addr, key -> new EnumMap<>(WR3223Commands.class));
+        unsupported.computeIfAbsent(addr, key -> EnumSet.noneOf(WR3223Commands.class));
+    }
+
+    /**
+     * Set the value of a register, which is answered to a read request.
+     *
+     * @param addr controller address
+     * @param command
+     * @param value the value as it's sent by the WR3223, e.g. "21.5"
+     */
+    public synchronized void setValue(int addr, WR3223Commands command, String value) {
+        addController(addr);
+        registers.get(addr).put(command, value);
+    }
+
+    /**
+     * @param addr controller address
+     * @param command
+     * @return the value of the register, the last written value or null if the controller isn't simulated.
+     */
+    public synchronized @Nullable String getValue(int addr, WR3223Commands command) {
+        Map<WR3223Commands, String> values = registers.get(addr);
+        return values != null ? values.getOrDefault(command, "0") : null;
+    }
+
+    /**
+     * The controller answers reads of the command with {@link #UNSUPPORTED} and writes with NAK.
+     *
+     * @param addr controller address
+     * @param command
+     */
+    public synchronized void setUnsupported(int addr, WR3223Commands command) {
+        addController(addr);
+        unsupported.get(addr).add(command);
+    }
+
+    /**
+     * @param latency time in milliseconds between the request and the answer
+     */
+    public void setLatency(long latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * @param noiseProbability probability of random bytes in front of an answer, between 0 and 1
+     */
+    public void setNoiseProbability(double noiseProbability) {
+        this.noiseProbability = noiseProbability;
+    }
+
+    /**
+     * @param dropProbability probability that a request isn't answered, between 0 and 1
+     */
+    public void setDropProbability(double dropProbability) {
+        this.dropProbability = dropProbability;
+    }
+
+    /**
+     * Don't answer the next requests, so a test can rely on the dropped answers.
+     *
+     * @param count number of requests to drop
+     */
+    public void dropNextRequests(int count) {
+        dropRequests.set(count);
+    }
+
+    /**
+     * @param baudRate emulated line rate, e.g. 9600, or 0 for no limit
+     */
+    public void setBaudRate(int baudRate) {
+        this.baudRate = baudRate;
+    }
+
+    /**
+     * @return the number of received read requests, including the not answered requests.
+     */
+    public long getReadCount() {
+        return readCount.get();
+    }
+
+    /**
+     * @return the number of received write requests, including the not answered requests.
+     */
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * @return the number of requests, which weren't answered because of the drop probability.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Serve a local TCP port like a serial to ethernet gateway. The clients are served one after the other.
+     *
+     * @param port the port or 0 for any free port
+     * @return the local port.
+     * @throws IOException
+     */
+    public int startTcp(int port) throws IOException {
+        ServerSocket serverSocket = new ServerSocket(port, 1, InetAddress.getLoopbackAddress());
+        resources.add(serverSocket);
+        WR3223Threads.newThread(() -> acceptClients(serverSocket), "OH-binding-wr3223-simulator").start();
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Open a simulated serial line, which is served by the simulator. The binding uses the line with the
+     * {@link SimulatedSerialWR3223Connector}.
+     *
+     * @return the line.
+     */
+    public SimulatedSerialLine openSerialLine() {
+        SimulatedSerialLine line = new SimulatedSerialLine();
+        resources.add(line);
+        WR3223Threads.newThread(() -> {
+            try {
+                serve(line.getDeviceInputStream(), line.getDeviceOutputStream());
+            } catch (IOException e) {
+                logger.debug("Simulated serial line closed.");
+            }
+        }, "OH-binding-wr3223-simulator").start();
+        return line;
+    }
+
+    /**
+     * Stop serving and close all connections.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Closeable resource : resources) {
+            try {
+                resource.close();
+            } catch (IOException e) {
+                logger.debug("Couldn't close {}.", resource, e);
+            }
+        }
+        resources.clear();
+    }
+
+    private void acceptClients(ServerSocket serverSocket) {
+        while (!closed && !serverSocket.isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                resources.add(socket);
+                try {
+                    socket.setTcpNoDelay(true);
+                    serve(new BufferedInputStream(socket.getInputStream()), socket.getOutputStream());
+                } finally {
+                    resources.remove(socket);
+                }
+            } catch (SocketException e) {
+                // Closed by the client or by the simulator
+            } catch (IOException e) {
+                logger.debug("Client of the simulator failed.", e);
+            }
+        }
+    }
+
+    /**
+     * Answer the requests until the end of the stream.
+     */
+    private void serve(InputStream in, OutputStream out) throws IOException {
+        byte[] header = new byte[4];
+        while (!closed) {
+            int value = in.read();
+            if (value < 0) {
+                return;
+            }
+            if (value != EOT) {
+                // Wait for the start of the next request
+                continue;
+            }
+            if (!readFully(in, header)) {
+                return;
+            }
+            int first = in.read();
+            if (first < 0) {
+                return;
+            }
+            if (first == STX) {
+                handleWrite(in, out, header);
+            } else {
+                int second = in.read();
+                int enq = in.read();
+                if (enq == ENQ) {
+                    handleRead(out, header, (byte) first, (byte) second);
+                }
+            }
+        }
+    }
+
+    private void handleRead(OutputStream out, byte[] header, byte first, byte second) throws IOException {
+        readCount.incrementAndGet();
+        transmit(8);
+        Integer addr = parseAddress(header);
+        if (addr == null || isDropped()) {
+            return;
+        }
+        String value;
+        synchronized (this) {
+            Map<WR3223Commands, String> values = registers.get(addr);
+            if (values == null) {
+                // Another controller on the bus
+                return;
+            }
+            WR3223Commands command = parseCommand(first, second);
+            if (command == null || unsupported.get(addr).contains(command)) {
+                value = UNSUPPORTED;
+            } else {
+                value = values.getOrDefault(command, "0");
+            }
+        }
+        byte[] payload = value.getBytes(StandardCharsets.US_ASCII);
+        byte[] answer = new byte[payload.length + 5];
+        answer[0] = STX;
+        answer[1] = first;
+        answer[2] = second;
+        System.arraycopy(payload, 0, answer, 3, payload.length);
+        answer[answer.length - 2] = ETX;
+        answer[answer.length - 1] = checkSum(answer, 1, answer.length - 2);
+        answer(out, answer);
+    }
+
+    private void handleWrite(InputStream in, OutputStream out, byte[] header) throws IOException {
+        writeCount.incrementAndGet();
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        data.write(STX);
+        int value;
+        do {
+            value = in.read();
+            if (value < 0) {
+                return;
+            }
+            data.write(value);
+        } while (value != ETX && data.size() < MAX_VALUE_LENGTH + 4);
+        int bcc = in.read();
+        if (bcc < 0) {
+            return;
+        }
+        byte[] request = data.toByteArray();
+        transmit(request.length + 6);
+        Integer addr = parseAddress(header);
+        if (addr == null || isDropped()) {
+            return;
+        }
+        WR3223Commands command = request.length >= 4 ? parseCommand(request[1], request[2]) : null;
+        boolean valid = value == ETX && command != null
+                && (byte) bcc == checkSum(request, 1, request.length - 1);
+        synchronized (this) {
+            Map<WR3223Commands, String> values = registers.get(addr);
+            if (values == null) {
+                // Another controller on the bus
+                return;
+            }
+            if (valid && !unsupported.get(addr).contains(command)) {
+                values.put(command, new String(request, 3, request.length - 4, StandardCharsets.US_ASCII));
+            } else {
+                valid = false;
+            }
+        }
+        answer(out, new byte[] { valid ? ACK : NAK });
+    }
+
+    /**
+     * Send the answer after the latency, with noise in front of it and with the line rate.
+     */
+    private void answer(OutputStream out, byte[] answer) throws IOException {
+        if (latency > 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(latency));
+        }
+        byte[] noise = createNoise();
+        if (baudRate <= 0) {
+            out.write(noise);
+            out.write(answer);
+            out.flush();
+            return;
+        }
+        for (byte value : noise) {
+            transmit(1);
+            out.write(value);
+            out.flush();
+        }
+        for (byte value : answer) {
+            transmit(1);
+            out.write(value);
+            out.flush();
+        }
+    }
+
+    /**
+     * Wait the time the bytes need on the emulated line.
+     */
+    private void transmit(int bytes) {
+        int baudRate = this.baudRate;
+        if (baudRate > 0) {
+            LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(bytes * BITS_PER_BYTE) / baudRate);
+        }
+    }
+
+    private boolean isDropped() {
+        if (dropRequests.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+            droppedCount.incrementAndGet();
+            return true;
+        }
+        double dropProbability = this.dropProbability;
+        if (dropProbability <= 0) {
+            return false;
+        }
+        boolean dropped;
+        synchronized (random) {
+            dropped = random.nextDouble() < dropProbability;
+        }
+        if (dropped) {
+            droppedCount.incrementAndGet();
+        }
+        return dropped;
+    }
+
+    /**
+     * @return random bytes without control characters, which a real line picks up between two answers.
+     */
+    private byte[] createNoise() {
+        double noiseProbability = this.noiseProbability;
+        if (noiseProbability <= 0) {
+            return new byte[0];
+        }
+        synchronized (random) {
+            if (random.nextDouble() >= noiseProbability) {
+                return new byte[0];
+            }
+            byte[] noise = new byte[1 + random.nextInt(8)];
+            for (int ii = 0; ii < noise.length; ii++) {
+                noise[ii] = (byte) (0x20 + random.nextInt(0x5f));
+            }
+            return noise;
+        }
+    }
+
+    private static boolean readFully(InputStream in, byte[] buffer) throws IOException {
+        for (int ii = 0; ii < buffer.length; ii++) {
+            int value = in.read();
+            if (value < 0) {
+                return false;
+            }
+            buffer[ii] = (byte) value;
+        }
+        return true;
+    }
+
+    /**
+     * @return the address of the request or null if the address is corrupt. Every digit is sent twice.
+     */
+    private static @Nullable Integer parseAddress(byte[] header) {
+        if (header[0] != header[1] || header[2] != header[3] || !Character.isDigit(header[0])
+                || !Character.isDigit(header[2])) {
+            return null;
+        }
+        return (header[0] - '0') * 10 + header[2] - '0';
+    }
+
+    private static @Nullable WR3223Commands parseCommand(byte first, byte second) {
+        try {
+            return WR3223Commands.valueOf(new String(new byte[] { first, second }, StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static byte checkSum(byte[] data, int start, int end) {
+        int chkSum = 0;
+        for (int ii = start; ii <= end; ii++) {
+            chkSum ^= data[ii];
+        }
+        return (byte) chkSum;
+    }
+}